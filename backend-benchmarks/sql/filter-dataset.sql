@@ -0,0 +1,40 @@
+-- Seeds a filter benchmark dataset: 200 users with 2,000 tasks each plus one heavy user
+-- with 200,000 tasks. Run against an empty database after the application has created
+-- the schema once:  psql -d taskdb -f filter-dataset.sql
+-- Remove it again with:  DELETE FROM users WHERE username LIKE 'bench_%';
+
+INSERT INTO users (username, email, password, created_at)
+SELECT 'bench_' || n, 'bench_' || n || '@example.com', 'x', now()
+FROM generate_series(0, 200) AS n;
+
+SELECT setseed(0.42);
+
+INSERT INTO tasks (id, user_id, title, description, status, priority, category, tags, due_date, created_at, updated_at)
+SELECT nextval('task_id_seq'), u.id,
+       'Task ' || g || ' ' || (ARRAY['report','deploy','review','invoice','meeting','refactor'])[1 + g % 6],
+       'Generated task ' || g,
+       -- long-lived accounts are mostly finished work: 85% completed, 5% cancelled, 7% pending, 3% in progress
+       (SELECT CASE WHEN r < 0.85 THEN 'COMPLETED' WHEN r < 0.90 THEN 'CANCELLED'
+                    WHEN r < 0.97 THEN 'PENDING' ELSE 'IN_PROGRESS' END FROM (SELECT random() + g * 0 AS r) s),
+       (ARRAY['LOW','MEDIUM','HIGH','URGENT'])[1 + floor(random() * 4)::int],
+       (ARRAY['work','home','errands','health','finance'])[1 + floor(random() * 5)::int],
+       (ARRAY['q1','q2','ops','backend','frontend','urgent'])[1 + floor(random() * 6)::int] || ','
+           || (ARRAY['alpha','beta','gamma'])[1 + floor(random() * 3)::int],
+       CASE WHEN random() < 0.2 THEN NULL ELSE now() + (random() * 120 - 60) * interval '1 day' END,
+       now() - g * interval '1 minute',
+       now() - g * interval '1 minute'
+FROM users u
+CROSS JOIN LATERAL generate_series(1, CASE WHEN u.username = 'bench_0' THEN 200000 ELSE 2000 END) AS g
+WHERE u.username LIKE 'bench_%';
+
+INSERT INTO task_tags (task_id, tag, user_id)
+SELECT t.id, trim(tag), t.user_id
+FROM tasks t
+JOIN users u ON u.id = t.user_id
+CROSS JOIN LATERAL unnest(string_to_array(t.tags, ',')) AS tag
+WHERE u.username LIKE 'bench_%'
+ON CONFLICT DO NOTHING;
+
+ANALYZE users;
+ANALYZE tasks;
+ANALYZE task_tags;
@@ -0,0 +1,44 @@
+-- Plans for the filter combinations the task list serves, against the dataset from
+-- filter-dataset.sql. Each query mirrors the SQL Hibernate generates for
+-- GET /api/tasks/search and asks for the first page (51 rows) of the 200,000-task user.
+--   psql -d taskdb -f filter-explain.sql
+
+SELECT id AS uid FROM users WHERE username = 'bench_0' \gset
+
+-- 1. status set, newest first
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, title, status, priority, due_date, created_at FROM tasks
+WHERE user_id = :uid AND status IN ('PENDING', 'IN_PROGRESS')
+ORDER BY created_at DESC, id DESC FETCH FIRST 51 ROWS ONLY;
+
+-- 2. status + priority sets + category, newest first
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, title, status, priority, due_date, created_at FROM tasks
+WHERE user_id = :uid AND status IN ('PENDING') AND priority IN ('HIGH', 'URGENT') AND category = 'finance'
+ORDER BY created_at DESC, id DESC FETCH FIRST 51 ROWS ONLY;
+
+-- 3. category only, newest first
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, title, status, priority, due_date, created_at FROM tasks
+WHERE user_id = :uid AND category = 'health'
+ORDER BY created_at DESC, id DESC FETCH FIRST 51 ROWS ONLY;
+
+-- 4. overdue, soonest due first
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, title, status, priority, due_date, created_at FROM tasks
+WHERE user_id = :uid AND due_date < now() AND status <> 'COMPLETED'
+ORDER BY due_date, id FETCH FIRST 51 ROWS ONLY;
+
+-- 5. due range + tag, soonest due first
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT t.id, t.title, t.status, t.priority, t.due_date, t.created_at FROM tasks t
+WHERE t.user_id = :uid AND t.due_date >= now() AND t.due_date < now() + interval '14 days'
+  AND EXISTS (SELECT 1 FROM task_tags tt WHERE tt.user_id = :uid AND tt.tag = 'ops' AND tt.task_id = t.id)
+ORDER BY t.due_date, t.id FETCH FIRST 51 ROWS ONLY;
+
+-- 6. text query + status, newest first
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, title, status, priority, due_date, created_at FROM tasks
+WHERE user_id = :uid AND status IN ('PENDING')
+  AND id IN (SELECT fts.id FROM tasks fts WHERE fts.search_vector @@ to_tsquery('simple', 'invoice:*'))
+ORDER BY created_at DESC, id DESC FETCH FIRST 51 ROWS ONLY;
@@ -0,0 +1,253 @@
+package com.neurogine.taskapp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load test for the main task endpoints against a running backend: a fixed
+ * number of clients send requests back to back for a set time and the test reports
+ * throughput and latency percentiles per endpoint. Run it once against a backend on
+ * platform threads and once with {@code --spring.threads.virtual.enabled=true} (Java 21)
+ * to compare the two. Clients are spread over {@code --users} accounts (registration is rate
+ * limited to 10 a minute); a user's writes are serialized by design, so a single account
+ * would mostly measure that lock.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.neurogine.taskapp.benchmark.EndpointLoadTest \
+ *     --clients=400 --duration-s=30 --label=platform
+ * </pre>
+ */
+public class EndpointLoadTest {
+    
+    private enum Endpoint {
+        LIST(40), SEARCH(25), STATISTICS(15), UPDATE(20);
+    
+        private final int weight;
+    
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final String baseUrl;
+    private final List<Account> accounts = new ArrayList<>();
+    
+    EndpointLoadTest(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        EndpointLoadTest test = new EndpointLoadTest(options.getOrDefault("url", "http://localhost:8080"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "200"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup-s", "10"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration-s", "30"));
+        String label = options.getOrDefault("label", "run");
+    
+        int users = Integer.parseInt(options.getOrDefault("users", "5"));
+        int tasks = Integer.parseInt(options.getOrDefault("tasks", "500"));
+        String prefix = "endpointload" + System.currentTimeMillis() % 100000 + "u";
+        for (int i = 0; i < users; i++) {
+            test.accounts.add(test.seed(test.register(prefix + i), tasks));
+        }
+    
+        test.run(clients, TimeUnit.SECONDS.toNanos(warmupSeconds));
+        List<Sample>[] samples = test.run(clients, TimeUnit.SECONDS.toNanos(durationSeconds));
+        test.report(label, clients, durationSeconds, samples);
+        System.exit(0);
+    }
+    
+    private String register(String username) throws Exception {
+        Map<String, String> credentials = Map.of(
+                "username", username, "password", "endpointload", "email", username + "@example.com");
+        HttpResponse<String> response = send(post(null, "/api/auth/register", credentials));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not register: " + response.statusCode() + " " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+    
+    private Account seed(String token, int count) throws Exception {
+        String[] statuses = {"PENDING", "IN_PROGRESS", "COMPLETED"};
+        String[] priorities = {"LOW", "MEDIUM", "HIGH"};
+        List<Long> ids = new ArrayList<>(count);
+        for (int from = 0; from < count; from += 1000) {
+            List<Map<String, Object>> tasks = new ArrayList<>();
+            for (int i = from; i < Math.min(count, from + 1000); i++) {
+                tasks.add(Map.of("title", "load task " + i, "description", "seeded for the endpoint load test",
+                        "status", statuses[i % 3], "priority", priorities[i / 3 % 3],
+                        "category", "category-" + i % 5, "tags", "load,tag-" + i % 7));
+            }
+            HttpResponse<String> response = send(post(token, "/api/tasks/bulk/create", Map.of("tasks", tasks)));
+            for (JsonNode task : objectMapper.readTree(response.body())) {
+                ids.add(task.get("id").asLong());
+            }
+        }
+        return new Account(token, ids.stream().mapToLong(Long::longValue).toArray());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Sample>[] run(int clients, long durationNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + durationNanos;
+        List<Sample>[] samples = new List[clients];
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            List<Sample> own = new ArrayList<>();
+            Account account = accounts.get(i % accounts.size());
+            samples[i] = own;
+            threads[i] = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    Endpoint endpoint = pick();
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = send(request(account, endpoint)).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    own.add(new Sample(endpoint, System.nanoTime() - start, status));
+                }
+            }, "load-client-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return samples;
+    }
+    
+    private void report(String label, int clients, long durationSeconds, List<Sample>[] samples) {
+        Map<Endpoint, List<Sample>> byEndpoint = new HashMap<>();
+        List<Sample> all = new ArrayList<>();
+        for (List<Sample> own : samples) {
+            all.addAll(own);
+            for (Sample sample : own) {
+                byEndpoint.computeIfAbsent(sample.endpoint, e -> new ArrayList<>()).add(sample);
+            }
+        }
+        System.out.printf("%s: %d clients for %d s%n", label, clients, durationSeconds);
+        System.out.printf("%-12s %9s %9s %9s %9s %7s %7s%n", "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "503", "errors");
+        for (Endpoint endpoint : Endpoint.values()) {
+            print(endpoint.name().toLowerCase(), byEndpoint.getOrDefault(endpoint, List.of()), durationSeconds);
+        }
+        print("all", all, durationSeconds);
+    }
+    
+    private static void print(String name, List<Sample> samples, long durationSeconds) {
+        long[] sorted = samples.stream().mapToLong(sample -> sample.nanos).sorted().toArray();
+        long shed = samples.stream().filter(sample -> sample.status == 503).count();
+        long errors = samples.stream().filter(sample -> sample.status != 200 && sample.status != 503).count();
+        System.out.printf("%-12s %9d %9.0f %9.1f %9.1f %7d %7d%n", name, sorted.length,
+                (double) sorted.length / durationSeconds, millis(percentile(sorted, 50)),
+                millis(percentile(sorted, 99)), shed, errors);
+    }
+    
+    private Endpoint pick() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (Endpoint endpoint : Endpoint.values()) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return Endpoint.LIST;
+    }
+    
+    private HttpRequest request(Account account, Endpoint endpoint) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (endpoint) {
+            case SEARCH:
+                return get(account, "/api/tasks/search?status=PENDING&priority=HIGH&size=20");
+            case STATISTICS:
+                return get(account, "/api/tasks/statistics");
+            case UPDATE:
+                long id = account.taskIds[random.nextInt(account.taskIds.length)];
+                Map<String, String> task = Map.of("title", "load task " + id,
+                        "status", random.nextBoolean() ? "PENDING" : "IN_PROGRESS", "priority", "MEDIUM");
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/tasks/" + id))
+                        .header("Authorization", "Bearer " + account.token)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(task)))
+                        .build();
+            default:
+                return get(account, "/api/tasks?size=20");
+        }
+    }
+    
+    private HttpRequest get(Account account, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + account.token)
+                .build();
+    }
+    
+    private HttpRequest post(String token, String path, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+    
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private static long percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+    
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+    
+    private static class Account {
+        private final String token;
+        private final long[] taskIds;
+    
+        Account(String token, long[] taskIds) {
+            this.token = token;
+            this.taskIds = taskIds;
+        }
+    }
+    
+    private static class Sample {
+        private final Endpoint endpoint;
+        private final long nanos;
+        private final int status;
+    
+        Sample(Endpoint endpoint, long nanos, int status) {
+            this.endpoint = endpoint;
+            this.nanos = nanos;
+            this.status = status;
+        }
+    }
+}
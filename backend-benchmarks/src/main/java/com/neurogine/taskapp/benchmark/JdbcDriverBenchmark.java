@@ -0,0 +1,273 @@
+package com.neurogine.taskapp.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * pgjdbc with its default settings, with the parameters of the backend's base datasource URL
+ * (application.yml), and with those plus the driver properties of the prod profile
+ * (spring.datasource.hikari.data-source-properties in application-prod.yml); both files are
+ * read from the backend jar. Each operation sends the statements the application sends for it:
+ * an import batch of 500 tasks in Hibernate's batches of 50 plus their tags in one JdbcTemplate
+ * batch (rolled back), a task list page, a 1,000-row sync page and a 5,000-task export in
+ * pages of 500. The schema is migrated with the backend's Flyway scripts into
+ * jdbc_benchmark, which is dropped afterwards; -Djdbc.url, -Djdbc.username and
+ * -Djdbc.password point it at another database.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JdbcDriverBenchmark {
+    
+    private static final String SCHEMA = "jdbc_benchmark";
+    private static final int TASKS = 5000;
+    private static final int IMPORT_SIZE = 500;
+    private static final int HIBERNATE_BATCH_SIZE = 50;
+    
+    private static final String TASK_COLUMNS = "t1_0.id,t1_0.category,t1_0.created_at,t1_0.description,t1_0.due_date," +
+            "t1_0.priority,t1_0.status,t1_0.tags,t1_0.title,t1_0.updated_at";
+    private static final String INSERT_TASK_SQL = "insert into tasks (category,created_at,description,due_date," +
+            "priority,status,sync_version,tags,title,updated_at,user_id,id) values (?,?,?,?,?,?,?,?,?,?,?,?)";
+    private static final String INSERT_TAG_SQL =
+            "INSERT INTO task_tags (task_id, tag, user_id) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+    private static final String PAGE_SQL = "select " + TASK_COLUMNS + " from tasks t1_0 where t1_0.user_id=? " +
+            "order by t1_0.created_at desc,t1_0.id desc fetch first ? rows only";
+    private static final String SYNC_SQL = "select " + TASK_COLUMNS + " from tasks t1_0 where t1_0.user_id=? " +
+            "and t1_0.sync_version>=? and (t1_0.sync_version>? or t1_0.id>?) " +
+            "order by t1_0.sync_version,t1_0.id offset ? rows fetch first ? rows only";
+    private static final String EXPORT_SQL = "select " + TASK_COLUMNS + " from tasks t1_0 where t1_0.user_id=? " +
+            "and t1_0.id>? order by t1_0.id offset ? rows fetch first ? rows only";
+    private static final int EXPORT_PAGE_SIZE = 500;
+    
+    @Param({"defaults", "base", "prod"})
+    private String driver;
+    
+    private HikariDataSource dataSource;
+    private long userId;
+    private long nextId = 1_000_000_000L;
+    
+    @Setup
+    public void setup() throws SQLException {
+        String url = System.getProperty("jdbc.url", "jdbc:postgresql://localhost:5432/taskdb");
+        String username = System.getProperty("jdbc.username", "taskuser");
+        String password = System.getProperty("jdbc.password", "taskpass");
+    
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, username, password)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+    
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(1);
+        dataSource.setSchema(SCHEMA);
+        if (!driver.equals("defaults")) {
+            Properties driverProperties = baseDriverProperties();
+            if (driver.equals("prod")) {
+                driverProperties.putAll(prodDriverProperties());
+            }
+            dataSource.setDataSourceProperties(driverProperties);
+        }
+    
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (username, email, password, created_at) " +
+                    "VALUES ('jdbc_benchmark', 'jdbc_benchmark@example.com', 'x', now())");
+            try (ResultSet rs = statement.executeQuery("SELECT id FROM users WHERE username = 'jdbc_benchmark'")) {
+                rs.next();
+                userId = rs.getLong(1);
+            }
+            statement.execute("INSERT INTO tasks (id, user_id, title, description, status, priority, category, tags, " +
+                    "due_date, created_at, updated_at, sync_version) " +
+                    "SELECT nextval('task_id_seq'), " + userId + ", 'Task ' || g, 'Generated task ' || g, " +
+                    "(ARRAY['PENDING','IN_PROGRESS','COMPLETED','CANCELLED'])[1 + g % 4], " +
+                    "(ARRAY['LOW','MEDIUM','HIGH','URGENT'])[1 + g % 4], 'work', 'ops,backend', " +
+                    "now() + g * interval '1 hour', now() - g * interval '1 minute', now() - g * interval '1 minute', g " +
+                    "FROM generate_series(1, " + TASKS + ") AS g");
+            statement.execute("VACUUM ANALYZE tasks");
+        }
+    }
+    
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        }
+        dataSource.close();
+    }
+    
+    @Benchmark
+    public void importBatch() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long firstId = nextId;
+        nextId += IMPORT_SIZE;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_TASK_SQL)) {
+                for (int i = 0; i < IMPORT_SIZE; i++) {
+                    insert.setString(1, "work");
+                    insert.setTimestamp(2, now);
+                    insert.setString(3, "Imported task " + i);
+                    insert.setTimestamp(4, now);
+                    insert.setString(5, "MEDIUM");
+                    insert.setString(6, "PENDING");
+                    insert.setLong(7, i);
+                    insert.setString(8, "ops,backend");
+                    insert.setString(9, "Imported " + i);
+                    insert.setTimestamp(10, now);
+                    insert.setLong(11, userId);
+                    insert.setLong(12, firstId + i);
+                    insert.addBatch();
+                    if ((i + 1) % HIBERNATE_BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_TAG_SQL)) {
+                for (int i = 0; i < IMPORT_SIZE; i++) {
+                    for (String tag : new String[] {"ops", "backend"}) {
+                        insert.setLong(1, firstId + i);
+                        insert.setString(2, tag);
+                        insert.setLong(3, userId);
+                        insert.addBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+    }
+    
+    @Benchmark
+    public void listPage(Blackhole blackhole) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(PAGE_SQL)) {
+            select.setLong(1, userId);
+            select.setInt(2, 51);
+            readTasks(select, blackhole);
+        }
+    }
+    
+    @Benchmark
+    public void syncPage(Blackhole blackhole) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement select = connection.prepareStatement(SYNC_SQL)) {
+                select.setLong(1, userId);
+                select.setLong(2, 2000);
+                select.setLong(3, 2000);
+                select.setLong(4, 0);
+                select.setInt(5, 0);
+                select.setInt(6, 1001);
+                readTasks(select, blackhole);
+            }
+            connection.commit();
+            connection.setReadOnly(false);
+            connection.setAutoCommit(true);
+        }
+    }
+    
+    @Benchmark
+    public void export(Blackhole blackhole) throws SQLException {
+        // One read-only transaction per page, as TaskTransferService reads them; 5,000 tasks
+        // take ten full pages and an empty one
+        long afterId = 0;
+        long lastId;
+        do {
+            lastId = afterId;
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+                try (PreparedStatement select = connection.prepareStatement(EXPORT_SQL)) {
+                    select.setLong(1, userId);
+                    select.setLong(2, lastId);
+                    select.setInt(3, 0);
+                    select.setInt(4, EXPORT_PAGE_SIZE);
+                    afterId = readTasks(select, blackhole, lastId);
+                }
+                connection.commit();
+                connection.setReadOnly(false);
+                connection.setAutoCommit(true);
+            }
+        } while (afterId != lastId);
+    }
+    
+    private static void readTasks(PreparedStatement select, Blackhole blackhole) throws SQLException {
+        readTasks(select, blackhole, 0);
+    }
+    
+    // Returns the id of the last row, or lastId when there were none
+    private static long readTasks(PreparedStatement select, Blackhole blackhole, long lastId) throws SQLException {
+        try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                lastId = rs.getLong(1);
+                blackhole.consume(lastId);
+                blackhole.consume(rs.getString(2));
+                blackhole.consume(rs.getTimestamp(3));
+                blackhole.consume(rs.getString(4));
+                blackhole.consume(rs.getTimestamp(5));
+                blackhole.consume(rs.getString(6));
+                blackhole.consume(rs.getString(7));
+                blackhole.consume(rs.getString(8));
+                blackhole.consume(rs.getString(9));
+                blackhole.consume(rs.getTimestamp(10));
+            }
+        }
+        return lastId;
+    }
+    
+    // The query parameters of spring.datasource.url, which every profile uses
+    private static Properties baseDriverProperties() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        String url = yaml.getObject().getProperty("spring.datasource.url");
+        Properties driverProperties = new Properties();
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            for (String parameter : url.substring(query + 1).split("&")) {
+                int equals = parameter.indexOf('=');
+                driverProperties.setProperty(parameter.substring(0, equals), parameter.substring(equals + 1));
+            }
+        }
+        return driverProperties;
+    }
+    
+    private static Properties prodDriverProperties() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application-prod.yml"));
+        String prefix = "spring.datasource.hikari.data-source-properties.";
+        Properties driverProperties = new Properties();
+        yaml.getObject().forEach((key, value) -> {
+            if (key.toString().startsWith(prefix)) {
+                driverProperties.setProperty(key.toString().substring(prefix.length()), value.toString());
+            }
+        });
+        if (driverProperties.isEmpty()) {
+            throw new IllegalStateException("application-prod.yml sets no driver properties");
+        }
+        return driverProperties;
+    }
+}
@@ -0,0 +1,98 @@
+package com.neurogine.taskapp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.neurogine.taskapp.dto.TaskPage;
+import com.neurogine.taskapp.dto.TaskStatistics;
+import com.neurogine.taskapp.dto.TaskSummary;
+import com.neurogine.taskapp.model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization with an ObjectMapper set up as Spring Boot sets up the backend's
+ * (ISO dates, java.time module): a task list page of 50, a single Task as create and update
+ * returned it before TaskSummary, and the statistics body. Bytes are produced as the message
+ * converter produces them, through the shared mapper.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+    
+    private ObjectMapper objectMapper;
+    private ObjectWriter pageWriter;
+    private TaskPage page;
+    private Task task;
+    private TaskStatistics statistics;
+    
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        pageWriter = objectMapper.writerFor(TaskPage.class);
+    
+        LocalDateTime now = LocalDateTime.of(2025, 12, 31, 14, 40, 15, 469_000_000);
+        List<TaskSummary> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(new TaskSummary(1_000L + i, "Prepare quarterly report " + i,
+                    "Collect the numbers from finance and draft the summary for review", Task.TaskStatus.values()[i % 4],
+                    Task.TaskPriority.values()[i % 4], i % 5 == 0 ? null : now.plusDays(i), "work", "q1,finance",
+                    now.minusMinutes(i), now.minusMinutes(i)));
+        }
+        page = new TaskPage(items, "eyJzIjoiTkVXRVNUIiwiayI6IjIwMjUtMTItMzFUMTQ6NDA6MTUiLCJpIjoxMDQ5fQ");
+    
+        task = new Task();
+        task.setId(1_000L);
+        task.setTitle("Prepare quarterly report");
+        task.setDescription("Collect the numbers from finance and draft the summary for review");
+        task.setStatus(Task.TaskStatus.IN_PROGRESS);
+        task.setPriority(Task.TaskPriority.HIGH);
+        task.setDueDate(now.plusDays(3));
+        task.setCategory("work");
+        task.setTags("q1,finance");
+        task.setCreatedAt(now);
+        task.setUpdatedAt(now);
+    
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (Task.TaskStatus status : Task.TaskStatus.values()) {
+            byStatus.put(status.name(), 250L);
+        }
+        Map<String, Long> byPriority = new LinkedHashMap<>();
+        for (Task.TaskPriority priority : Task.TaskPriority.values()) {
+            byPriority.put(priority.name(), 250L);
+        }
+        statistics = new TaskStatistics(1_000L, byStatus, byPriority, 42L, 3L, 17L);
+    }
+    
+    @Benchmark
+    public byte[] taskPage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public byte[] taskPageTypedWriter() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public byte[] task() throws Exception {
+        return objectMapper.writeValueAsBytes(task);
+    }
+    
+    @Benchmark
+    public byte[] statistics() throws Exception {
+        return objectMapper.writeValueAsBytes(statistics);
+    }
+}
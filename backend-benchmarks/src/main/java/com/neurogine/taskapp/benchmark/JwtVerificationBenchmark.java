@@ -0,0 +1,74 @@
+package com.neurogine.taskapp.benchmark;
+
+import com.neurogine.taskapp.security.JwtUtil;
+import com.neurogine.taskapp.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original per-request JWT handling (key and parser rebuilt on every call,
+ * three parses per request) with the single-parse {@link JwtUtil#verify} path, with and
+ * without the verified-token cache, and times issuing a token.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+    
+    private static final String SECRET = "my-secret-key-change-this-in-production-please-make-it-long";
+    private static final long EXPIRATION = 86400000L;
+    
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private String token;
+    
+    @Setup
+    public void setup() {
+        uncached = new JwtUtil(SECRET, EXPIRATION, false, 0);
+        cached = new JwtUtil(SECRET, EXPIRATION, true, 10000);
+        token = uncached.generateToken("benchmark-user", 42L);
+    }
+    
+    @Benchmark
+    public boolean legacyFilterPath() {
+        // extractUsername + validateToken (getClaims + isTokenExpired) as JwtAuthFilter used to call them
+        String username = legacyClaims(token).getSubject();
+        legacyClaims(token);
+        boolean expired = legacyClaims(token).getExpiration().before(new Date());
+        return username != null && !expired;
+    }
+    
+    @Benchmark
+    public VerifiedToken verifyUncached() {
+        return uncached.verify(token);
+    }
+    
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return cached.verify(token);
+    }
+    
+    // Issued once per login and registration
+    @Benchmark
+    public String generate() {
+        return uncached.generateToken("benchmark-user", 42L);
+    }
+    
+    @SuppressWarnings("deprecation")
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parser()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
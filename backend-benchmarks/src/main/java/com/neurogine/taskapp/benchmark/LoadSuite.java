@@ -0,0 +1,545 @@
+package com.neurogine.taskapp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.neurogine.taskapp.security.JwtUtil;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproducible open-loop load test for review gates. It seeds the backend's own database with
+ * {@code --users} accounts of {@code --tasks-per-user} tasks each (straight into Postgres, same
+ * seed every time, skipped when the data is already there) and signs a token per account with
+ * the backend's JWT secret, so no registration or login limit gets in the way. It then sends
+ * requests at a fixed {@code --rate} per second, whatever the response times: latency is taken
+ * from when a request was due, not when it went out, so a stalled backend shows up in the
+ * percentiles instead of slowing the test down. Results are printed and written as JSON to
+ * {@code --output}. With {@code --baseline}, the run fails (exit code 1) when an endpoint's p95
+ * or p99 is more than {@code --tolerance} worse than in the baseline file, when fewer requests
+ * completed than were due, or when more than {@code --max-error-rate} of them failed.
+ * {@code --read-only=true} leaves out the updates, for the read-only reactive backend, and
+ * {@code --slow-clients} keeps that many connections reading a large response at a trickle
+ * while the requests are timed.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.neurogine.taskapp.benchmark.LoadSuite \
+ *     --users=10000 --tasks-per-user=1000 --rate=500 --duration-s=60 \
+ *     --output=load-suite.json --baseline=load-suite-main.json
+ * </pre>
+ *
+ * The backend must be running against {@code --jdbc-url} with the same {@code --jwt-secret}.
+ * To compare the servlet and reactive backends (see backend-reactive):
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.neurogine.taskapp.benchmark.LoadSuite --read-only=true \
+ *     --url=http://localhost:8082 --slow-clients=300 --slow-path=/api/tasks \
+ *     --slow-accept=application/x-ndjson
+ * </pre>
+ */
+public class LoadSuite {
+
+    private static final String PREFIX = "loadsuite_";
+    private static final String PASSWORD = "loadsuite";
+    private static final int SAMPLED_TASK_IDS = 100;
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    enum Endpoint {
+        LIST(35), SEARCH(20), TEXT_SEARCH(5), STATISTICS(15), CATEGORIES(5), UPDATE(20);
+
+        private final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+
+        String key() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final String baseUrl;
+    private final boolean readOnly;
+    private final List<Account> accounts = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    LoadSuite(String baseUrl, boolean readOnly) {
+        this.baseUrl = baseUrl;
+        this.readOnly = readOnly;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        LoadSuite suite = new LoadSuite(options.getOrDefault("url", "http://localhost:8080"),
+                Boolean.parseBoolean(options.getOrDefault("read-only", "false")));
+        String jdbcUrl = options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/taskdb");
+        String dbUsername = options.getOrDefault("db-username", "taskuser");
+        String dbPassword = options.getOrDefault("db-password", "taskpass");
+        String jwtSecret = options.getOrDefault("jwt-secret", "my-secret-key-change-this-in-production-please-make-it-long");
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        int tasksPerUser = Integer.parseInt(options.getOrDefault("tasks-per-user", "100"));
+        double seed = Double.parseDouble(options.getOrDefault("seed", "0.42"));
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup-s", "10"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration-s", "30"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        String label = options.getOrDefault("label", "run");
+        String output = options.getOrDefault("output", "load-suite.json");
+        String baseline = options.get("baseline");
+        double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.2"));
+        double maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "0.01"));
+        int slowClientCount = Integer.parseInt(options.getOrDefault("slow-clients", "0"));
+        String slowPath = options.getOrDefault("slow-path", "/api/tasks?size=200");
+        String slowAccept = options.getOrDefault("slow-accept", "application/json");
+        int slowBytesPerSecond = Integer.parseInt(options.getOrDefault("slow-bytes-per-s", "2048"));
+
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, dbUsername, dbPassword)) {
+            seed(connection, users, tasksPerUser, seed);
+            suite.loadAccounts(connection, new JwtUtil(jwtSecret, TimeUnit.DAYS.toMillis(1), false, 0));
+        }
+
+        SlowClients slowClients = new SlowClients(URI.create(suite.baseUrl), slowPath, slowAccept, slowBytesPerSecond,
+                suite.accounts, slowClientCount);
+        slowClients.start();
+        suite.run(rate, TimeUnit.SECONDS.toNanos(warmupSeconds), maxInFlight, new Results(new Random(1)));
+        Results results = new Results(new Random(2));
+        suite.run(rate, TimeUnit.SECONDS.toNanos(durationSeconds), maxInFlight, results);
+        slowClients.stop();
+
+        ObjectNode report = suite.report(results, label, rate, durationSeconds, users, tasksPerUser);
+        if (slowClientCount > 0) {
+            ObjectNode slow = report.putObject("slowClients");
+            slow.put("connections", slowClientCount);
+            slow.put("path", slowPath);
+            slow.put("accept", slowAccept);
+            slow.put("bytesPerSecond", slowBytesPerSecond);
+            slow.put("responses", slowClients.responses.get());
+            slow.put("bytes", slowClients.bytes.get());
+            slow.put("errors", slowClients.errors.get());
+            System.out.printf("slow clients: %d reading %s at %d B/s, %d responses, %d bytes, %d errors%n",
+                    slowClientCount, slowPath, slowBytesPerSecond, slowClients.responses.get(),
+                    slowClients.bytes.get(), slowClients.errors.get());
+        }
+        suite.objectMapper.writeValue(new File(output), report);
+        System.out.println("Results written to " + output);
+
+        boolean passed = true;
+        if (baseline != null) {
+            passed = suite.compare(report, suite.objectMapper.readTree(new File(baseline)), tolerance, maxErrorRate);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Seeds the accounts unless exactly this data set is already in place. Task content comes
+     * from Postgres' random() after setseed, so the same options give the same rows.
+     */
+    private static void seed(Connection connection, int users, int tasksPerUser, double seed) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT count(*), " +
+                     "(SELECT count(*) FROM tasks t JOIN users u ON u.id = t.user_id WHERE u.username LIKE '" + PREFIX + "%') " +
+                     "FROM users WHERE username LIKE '" + PREFIX + "%'")) {
+            rs.next();
+            if (rs.getLong(1) == users && rs.getLong(2) == (long) users * tasksPerUser) {
+                System.out.printf("Reusing %d seeded users with %d tasks each%n", users, tasksPerUser);
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        System.out.printf("Seeding %d users with %d tasks each...%n", users, tasksPerUser);
+        String seeded = "(SELECT id FROM users WHERE username LIKE '" + PREFIX + "%')";
+        connection.setAutoCommit(false);
+        execute(connection, "DELETE FROM task_tags WHERE user_id IN " + seeded);
+        execute(connection, "DELETE FROM task_tombstones WHERE user_id IN " + seeded);
+        execute(connection, "DELETE FROM task_counters WHERE user_id IN " + seeded);
+        execute(connection, "DELETE FROM task_versions WHERE user_id IN " + seeded);
+        execute(connection, "DELETE FROM tasks WHERE user_id IN " + seeded);
+        execute(connection, "DELETE FROM users WHERE username LIKE '" + PREFIX + "%'");
+
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO users (username, email, password, created_at) " +
+                "SELECT '" + PREFIX + "' || n, '" + PREFIX + "' || n || '@example.com', ?, now() " +
+                "FROM generate_series(0, ?) AS n")) {
+            insert.setString(1, new BCryptPasswordEncoder(4).encode(PASSWORD));
+            insert.setInt(2, users - 1);
+            insert.executeUpdate();
+        }
+        execute(connection, "SELECT setseed(" + seed + ")");
+        execute(connection, "INSERT INTO tasks (id, user_id, title, description, status, priority, category, tags, " +
+                "due_date, created_at, updated_at, sync_version) " +
+                "SELECT nextval('task_id_seq'), u.id, " +
+                "'Task ' || g || ' ' || (ARRAY['report','deploy','review','invoice','meeting','refactor'])[1 + g % 6], " +
+                "'Seeded by the load suite', " +
+                "(ARRAY['PENDING','IN_PROGRESS','COMPLETED','CANCELLED'])[1 + floor(random() * 4)::int], " +
+                "(ARRAY['LOW','MEDIUM','HIGH','URGENT'])[1 + floor(random() * 4)::int], " +
+                "(ARRAY['work','home','errands','health','finance'])[1 + floor(random() * 5)::int], " +
+                "(ARRAY['q1','q2','ops','backend','frontend'])[1 + floor(random() * 5)::int] || ',load', " +
+                "CASE WHEN random() < 0.2 THEN NULL ELSE now() + (random() * 60 - 30) * interval '1 day' END, " +
+                "now() - g * interval '1 minute', now() - g * interval '1 minute', 1 " +
+                "FROM (SELECT id FROM users WHERE username LIKE '" + PREFIX + "%' ORDER BY id) u " +
+                "CROSS JOIN LATERAL generate_series(1, " + tasksPerUser + ") AS g");
+        execute(connection, "INSERT INTO task_tags (task_id, tag, user_id) " +
+                "SELECT t.id, tag, t.user_id FROM tasks t CROSS JOIN LATERAL unnest(string_to_array(t.tags, ',')) AS tag " +
+                "WHERE t.user_id IN " + seeded + " ON CONFLICT DO NOTHING");
+        execute(connection, "INSERT INTO task_counters (user_id, dimension, bucket, task_count) " +
+                "SELECT user_id, 'STATUS', status, count(*) FROM tasks WHERE user_id IN " + seeded + " GROUP BY user_id, status " +
+                "UNION ALL SELECT user_id, 'PRIORITY', priority, count(*) FROM tasks WHERE user_id IN " + seeded +
+                " GROUP BY user_id, priority");
+        execute(connection, "INSERT INTO task_versions (user_id, version, modified_at) " +
+                "SELECT id, 1, now() FROM users WHERE username LIKE '" + PREFIX + "%'");
+        connection.commit();
+        connection.setAutoCommit(true);
+        execute(connection, "ANALYZE users, tasks, task_tags, task_counters, task_versions");
+        System.out.printf("Seeded in %d s%n", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    private void loadAccounts(Connection connection, JwtUtil jwtUtil) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT u.id, u.username, " +
+                     "ARRAY(SELECT t.id FROM tasks t WHERE t.user_id = u.id ORDER BY t.id LIMIT " + SAMPLED_TASK_IDS + ") " +
+                     "FROM users u WHERE u.username LIKE '" + PREFIX + "%' ORDER BY u.id")) {
+            while (rs.next()) {
+                Array ids = rs.getArray(3);
+                Long[] taskIds = (Long[]) ids.getArray();
+                accounts.add(new Account(jwtUtil.generateToken(rs.getString(2), rs.getLong(1)), taskIds));
+            }
+        }
+    }
+
+    /**
+     * Sends rate requests a second for the given time. Each request is due at a fixed offset
+     * from the start; one that cannot be sent because max-in-flight are outstanding counts as
+     * dropped.
+     */
+    private void run(int rate, long durationNanos, int maxInFlight, Results results) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long count = durationNanos / interval;
+        for (long i = 0; i < count; i++) {
+            long due = start + i * interval;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = results.pick(readOnly);
+            Account account = accounts.get(results.random.nextInt(accounts.size()));
+            results.due.incrementAndGet();
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                results.dropped.incrementAndGet();
+                continue;
+            }
+            HttpRequest request = request(account, endpoint, results.random);
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.decrementAndGet();
+                        results.samples.add(new Sample(endpoint, System.nanoTime() - due,
+                                error != null ? -1 : response.statusCode()));
+                    });
+        }
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        results.elapsedNanos = System.nanoTime() - start;
+    }
+
+    private HttpRequest request(Account account, Endpoint endpoint, Random random) {
+        switch (endpoint) {
+            case SEARCH:
+                return get(account, "/api/tasks/search?status=PENDING,IN_PROGRESS&priority=HIGH&size=20");
+            case TEXT_SEARCH:
+                return get(account, "/api/tasks/search?query=invoice&size=20");
+            case STATISTICS:
+                return get(account, "/api/tasks/statistics");
+            case CATEGORIES:
+                return get(account, "/api/tasks/categories");
+            case UPDATE:
+                long id = account.taskIds[random.nextInt(account.taskIds.length)];
+                String body = "{\"title\":\"Task " + id + " updated\",\"status\":\"" +
+                        (random.nextBoolean() ? "PENDING" : "IN_PROGRESS") + "\",\"priority\":\"MEDIUM\",\"category\":\"work\",\"tags\":\"q1,load\"}";
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/tasks/" + id))
+                        .header("Authorization", "Bearer " + account.token)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            default:
+                return get(account, "/api/tasks?size=20");
+        }
+    }
+
+    private HttpRequest get(Account account, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + account.token)
+                .build();
+    }
+
+    private ObjectNode report(Results results, String label, int rate, long durationSeconds, int users, int tasksPerUser) {
+        double seconds = results.elapsedNanos / 1e9;
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("label", label);
+        report.put("timestamp", Instant.now().toString());
+        ObjectNode config = report.putObject("config");
+        config.put("url", baseUrl);
+        config.put("rate", rate);
+        config.put("durationSeconds", durationSeconds);
+        config.put("users", users);
+        config.put("tasksPerUser", tasksPerUser);
+        config.put("readOnly", readOnly);
+        report.put("due", results.due.get());
+        report.put("dropped", results.dropped.get());
+
+        Map<Endpoint, List<Sample>> byEndpoint = new EnumMap<>(Endpoint.class);
+        List<Sample> all = new ArrayList<>(results.samples);
+        for (Sample sample : all) {
+            byEndpoint.computeIfAbsent(sample.endpoint, e -> new ArrayList<>()).add(sample);
+        }
+        System.out.printf("%s: %d req/s for %d s, %d users x %d tasks%n", label, rate, durationSeconds, users, tasksPerUser);
+        System.out.printf("%-12s %9s %9s %9s %9s %9s %9s %9s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p95 ms", "p99 ms", "max ms", "errors");
+        ObjectNode endpoints = report.putObject("endpoints");
+        for (Endpoint endpoint : Endpoint.values()) {
+            endpoints.set(endpoint.key(), summarize(endpoint.key(), byEndpoint.getOrDefault(endpoint, List.of()), seconds));
+        }
+        report.set("all", summarize("all", all, seconds));
+        System.out.printf("due %d, dropped %d%n", results.due.get(), results.dropped.get());
+        return report;
+    }
+
+    private ObjectNode summarize(String name, List<Sample> samples, double seconds) {
+        long[] sorted = samples.stream().mapToLong(sample -> sample.nanos).sorted().toArray();
+        Map<String, Long> statuses = new TreeMap<>();
+        long errors = 0;
+        for (Sample sample : samples) {
+            statuses.merge(String.valueOf(sample.status), 1L, Long::sum);
+            if (sample.status < 200 || sample.status >= 300) {
+                errors++;
+            }
+        }
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("requests", sorted.length);
+        node.put("throughput", sorted.length / seconds);
+        node.put("errors", errors);
+        node.set("statuses", objectMapper.valueToTree(statuses));
+        ObjectNode latency = node.putObject("latencyMs");
+        for (double percentile : PERCENTILES) {
+            latency.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile).replace(".", "")),
+                    millis(percentile(sorted, percentile)));
+        }
+        latency.put("max", sorted.length == 0 ? 0 : millis(sorted[sorted.length - 1]));
+        System.out.printf("%-12s %9d %9.0f %9.1f %9.1f %9.1f %9.1f %9.1f %7d%n", name, sorted.length,
+                sorted.length / seconds, latency.get("p50").asDouble(), latency.get("p90").asDouble(),
+                latency.get("p95").asDouble(), latency.get("p99").asDouble(), latency.get("max").asDouble(), errors);
+        return node;
+    }
+
+    /**
+     * Fails on errors, on requests due but never completed, and on a p95 or p99 that is worse
+     * than the baseline's by more than the tolerance (and by more than a millisecond, which
+     * is below what a shared machine can resolve).
+     */
+    private boolean compare(ObjectNode report, JsonNode baseline, double tolerance, double maxErrorRate) {
+        List<String> failures = new ArrayList<>();
+        JsonNode all = report.get("all");
+        double errorRate = all.get("errors").asDouble() / Math.max(1, all.get("requests").asLong());
+        if (errorRate > maxErrorRate) {
+            failures.add(String.format("error rate %.2f%% exceeds %.2f%%", errorRate * 100, maxErrorRate * 100));
+        }
+        long missing = report.get("due").asLong() - all.get("requests").asLong();
+        if (missing > 0) {
+            failures.add(missing + " requests due were dropped or never completed");
+        }
+        ArrayNode checked = objectMapper.createArrayNode();
+        baseline.get("endpoints").fields().forEachRemaining(entry -> {
+            JsonNode current = report.get("endpoints").get(entry.getKey());
+            if (current == null || entry.getValue().get("requests").asLong() == 0) {
+                return;
+            }
+            for (String percentile : new String[] {"p95", "p99"}) {
+                double before = entry.getValue().get("latencyMs").get(percentile).asDouble();
+                double now = current.get("latencyMs").get(percentile).asDouble();
+                checked.add(entry.getKey() + " " + percentile);
+                if (now > before * (1 + tolerance) && now - before > 1.0) {
+                    failures.add(String.format("%s %s %.1f ms, baseline %.1f ms", entry.getKey(), percentile, now, before));
+                }
+            }
+        });
+        System.out.printf("Compared %d percentiles with the baseline (tolerance %.0f%%)%n", checked.size(), tolerance * 100);
+        failures.forEach(failure -> System.out.println("REGRESSION: " + failure));
+        System.out.println(failures.isEmpty() ? "PASSED" : "FAILED");
+        return failures.isEmpty();
+    }
+
+    private static void execute(Connection connection, String sql) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static class Results {
+        private final Random random;
+        private final ConcurrentLinkedQueue<Sample> samples = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger due = new AtomicInteger();
+        private final AtomicInteger dropped = new AtomicInteger();
+        private long elapsedNanos;
+
+        Results(Random random) {
+            this.random = random;
+        }
+
+        Endpoint pick(boolean readOnly) {
+            int roll = random.nextInt(readOnly ? 100 - Endpoint.UPDATE.weight : 100);
+            for (Endpoint endpoint : Endpoint.values()) {
+                if (readOnly && endpoint == Endpoint.UPDATE) {
+                    continue;
+                }
+                roll -= endpoint.weight;
+                if (roll < 0) {
+                    return endpoint;
+                }
+            }
+            return Endpoint.LIST;
+        }
+    }
+
+    /**
+     * Connections that request a large response and read it a kilobyte at a time at the given
+     * rate, like clients on a poor mobile link, reconnecting whenever a response ends. Their
+     * receive buffer is kept small so the backend's writes wait on them instead of the kernel.
+     */
+    private static class SlowClients {
+        private final List<Thread> threads = new ArrayList<>();
+        private final AtomicLong responses = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private volatile boolean running = true;
+
+        SlowClients(URI baseUri, String path, String accept, int bytesPerSecond, List<Account> accounts, int count) {
+            for (int i = 0; i < count; i++) {
+                Account account = accounts.get(i % accounts.size());
+                Thread thread = new Thread(() -> readSlowly(baseUri, path, accept, bytesPerSecond, account),
+                        "slow-client-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+            }
+        }
+
+        void start() {
+            threads.forEach(Thread::start);
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        private void readSlowly(URI baseUri, String path, String accept, int bytesPerSecond, Account account) {
+            byte[] buffer = new byte[1024];
+            long pauseNanos = TimeUnit.SECONDS.toNanos(1) * buffer.length / bytesPerSecond;
+            String request = "GET " + path + " HTTP/1.1\r\nHost: " + baseUri.getHost() + "\r\n" +
+                    "Authorization: Bearer " + account.token + "\r\nAccept: " + accept + "\r\n" +
+                    "Connection: close\r\n\r\n";
+            while (running) {
+                try (Socket socket = new Socket()) {
+                    socket.setReceiveBufferSize(4096);
+                    socket.setSoTimeout((int) TimeUnit.MINUTES.toMillis(1));
+                    socket.connect(new InetSocketAddress(baseUri.getHost(), baseUri.getPort()), 10_000);
+                    socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+                    InputStream in = socket.getInputStream();
+                    int read;
+                    while ((read = in.read(buffer)) != -1 && running) {
+                        bytes.addAndGet(read);
+                        LockSupport.parkNanos(pauseNanos);
+                    }
+                    if (read == -1) {
+                        responses.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    if (running) {
+                        errors.incrementAndGet();
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Account {
+        private final String token;
+        private final long[] taskIds;
+
+        Account(String token, Long[] taskIds) {
+            this.token = token;
+            this.taskIds = new long[taskIds.length];
+            for (int i = 0; i < taskIds.length; i++) {
+                this.taskIds[i] = taskIds[i];
+            }
+        }
+    }
+
+    private static class Sample {
+        private final Endpoint endpoint;
+        private final long nanos;
+        private final int status;
+
+        Sample(Endpoint endpoint, long nanos, int status) {
+            this.endpoint = endpoint;
+            this.nanos = nanos;
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.neurogine.taskapp.benchmark;
+
+import org.hibernate.engine.jdbc.spi.SqlStatementLogger;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.core.env.StandardEnvironment;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Logging cost of one task search request under the old logback.xml with show-sql and under
+ * the prod profile of logback-spring.xml. Each request logs its three statements through
+ * Hibernate's own SqlStatementLogger, the controller's search line and, in prod, the sampled
+ * access log entry. Stdout goes to a file, as under a process manager, and both configs
+ * write their log files to a temporary directory.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+    
+    private static final String[] STATEMENTS = {
+        "select t1_0.id,t1_0.title,t1_0.description,t1_0.status,t1_0.priority,t1_0.due_date,t1_0.category," +
+                "t1_0.tags,t1_0.created_at,t1_0.updated_at from tasks t1_0 where t1_0.user_id=? and t1_0.status in (?,?) " +
+                "and t1_0.priority in (?) order by t1_0.created_at desc,t1_0.id desc fetch first ? rows only",
+        "select tv1_0.user_id,tv1_0.modified_at,tv1_0.version from task_versions tv1_0 where tv1_0.user_id=?",
+        "select u1_0.id,u1_0.avatar_url,u1_0.created_at,u1_0.email,u1_0.first_name,u1_0.last_login_at," +
+                "u1_0.last_name,u1_0.password,u1_0.username from users u1_0 where u1_0.id=?"
+    };
+    private static final String FILTER = "TaskFilter(query=null, status=[PENDING, IN_PROGRESS], priority=[HIGH], " +
+            "category=null, tag=null, dueFrom=null, dueTo=null, overdue=null, sort=null)";
+    
+    @Param({"before", "prod"})
+    private String config;
+    
+    private Path directory;
+    private PrintStream stdout;
+    private LoggingSystem loggingSystem;
+    private SqlStatementLogger sqlLogger;
+    private Logger controllerLog;
+    private Logger accessLog;
+    private boolean before;
+    
+    @Setup
+    public void setup() throws IOException {
+        before = config.equals("before");
+        directory = Files.createTempDirectory("logging-benchmark");
+        System.setProperty("LOG_PATH", directory.toString());
+        stdout = System.out;
+        System.setOut(new PrintStream(new FileOutputStream(directory.resolve("stdout.log").toFile()), true));
+    
+        StandardEnvironment environment = new StandardEnvironment();
+        if (!before) {
+            environment.setActiveProfiles("prod");
+        }
+        loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+        loggingSystem.beforeInitialize();
+        loggingSystem.initialize(new LoggingInitializationContext(environment),
+                before ? "classpath:logback-before.xml" : "classpath:logback-spring.xml", null);
+    
+        // show-sql and format_sql were both on; format_sql still is, but nothing is logged in prod
+        sqlLogger = new SqlStatementLogger(before, true, false, 0);
+        controllerLog = LoggerFactory.getLogger("com.neurogine.taskapp.controller.TaskController");
+        accessLog = LoggerFactory.getLogger("com.neurogine.taskapp.access");
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        loggingSystem.cleanUp();
+        loggingSystem.getShutdownHandler().run();
+        System.setOut(stdout);
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    @Benchmark
+    public void searchRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        MDC.put("requestId", new UUID(random.nextLong(), random.nextLong()).toString());
+        try {
+            if (before) {
+                controllerLog.info("Search tasks - user: {}, filter: {}", "benchmark", FILTER);
+            } else {
+                controllerLog.debug("Search tasks - user: {}, filter: {}", "benchmark", FILTER);
+            }
+            for (String statement : STATEMENTS) {
+                sqlLogger.logStatement(statement);
+            }
+            if (!before && random.nextDouble() < 0.01) {
+                accessLog.info("{} {} {} {}", kv("method", "GET"), kv("route", "/api/tasks/search"),
+                        kv("status", 200), kv("durationMs", 12));
+            }
+        } finally {
+            MDC.remove("requestId");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.neurogine.taskapp.benchmark;
+
+import com.neurogine.taskapp.config.LocalRateLimitBucketStore;
+import com.neurogine.taskapp.config.RateLimitFilter;
+import com.neurogine.taskapp.security.AuthenticatedUser;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rate limiter per request with the local bucket store: the bucket lookup and
+ * consume on its own, for a key that has a bucket and for one that does not yet, and the whole
+ * RateLimitFilter on a task route (bucket per user) and an auth route (bucket per IP and
+ * route). Keys are spread over 10,000 users or addresses, and limits are set high enough that
+ * no request is refused.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+    
+    private static final int KEYS = 10_000;
+    private static final long CAPACITY = 1_000_000_000L;
+    
+    private LocalRateLimitBucketStore store;
+    private BucketConfiguration configuration;
+    private RateLimitFilter filter;
+    private UsernamePasswordAuthenticationToken[] users;
+    private String[] keys;
+    private long newKeys;
+    
+    @Setup
+    public void setup() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        store = new LocalRateLimitBucketStore(meterRegistry, 1_000_000, Duration.ofMinutes(10));
+        configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(CAPACITY, Refill.greedy(CAPACITY, Duration.ofMinutes(1))))
+                .build();
+        filter = new RateLimitFilter(store, meterRegistry, CAPACITY, Duration.ofMinutes(1),
+                CAPACITY, Duration.ofMinutes(1), List.of());
+    
+        users = new UsernamePasswordAuthenticationToken[KEYS];
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            users[i] = new UsernamePasswordAuthenticationToken(new AuthenticatedUser((long) i, "user" + i), null,
+                    AuthorityUtils.createAuthorityList("USER"));
+            keys[i] = "tasks:" + i;
+            store.resolve(keys[i], configuration);
+        }
+    }
+    
+    @Benchmark
+    public boolean existingBucket() {
+        String key = keys[ThreadLocalRandom.current().nextInt(KEYS)];
+        return store.resolve(key, configuration).tryConsume(1);
+    }
+    
+    @Benchmark
+    public boolean newBucket() {
+        return store.resolve("new:" + newKeys++, configuration).tryConsume(1);
+    }
+    
+    @Benchmark
+    public int taskRouteFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks/42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        SecurityContextHolder.getContext().setAuthentication(users[ThreadLocalRandom.current().nextInt(KEYS)]);
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+    
+    @Benchmark
+    public int authRouteFilter() throws Exception {
+        int client = ThreadLocalRandom.current().nextInt(KEYS);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr("10.0." + client / 256 + "." + client % 256);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,253 @@
+package com.neurogine.taskapp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test for GET /api/tasks/stream against a running backend. Opens many event streams
+ * for one user, creates tasks at a fixed rate and reports how long each created event took
+ * to reach every stream (send to receipt, measured in this process).
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.neurogine.taskapp.benchmark.StreamLoadTest \
+ *     --connections=5000 --events=50 --interval-ms=200
+ * </pre>
+ *
+ * The backend limits streams per user, so start it with
+ * {@code --tasks.stream.max-per-user} at least as high as {@code --connections}.
+ */
+public class StreamLoadTest {
+    
+    private static final Pattern LOAD_TITLE = Pattern.compile("\"title\":\"stream-load-(\\d+)\"");
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final String baseUrl;
+    private String token;
+    
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+    private final Map<Integer, Long> sentAt = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+    private volatile String firstFailure;
+    
+    StreamLoadTest(String baseUrl, ExecutorService executor) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        int connections = Integer.parseInt(options.getOrDefault("connections", "1000"));
+        int events = Integer.parseInt(options.getOrDefault("events", "50"));
+        long intervalMs = Long.parseLong(options.getOrDefault("interval-ms", "200"));
+        int openRate = Integer.parseInt(options.getOrDefault("open-rate", "500"));
+        String username = options.getOrDefault("username", "streamload" + System.currentTimeMillis() % 100000);
+    
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        StreamLoadTest test = new StreamLoadTest(baseUrl, executor);
+        test.authenticate(username, options.getOrDefault("password", "streamload"));
+    
+        long openStart = System.nanoTime();
+        test.open(connections, openRate);
+        long openMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openStart);
+        System.out.printf("streams: %d open, %d rejected, %d pending after %d ms%n", test.connected.get(),
+                test.rejected.get(), connections - test.connected.get() - test.rejected.get(), openMillis);
+        if (test.firstFailure != null) {
+            System.out.println("first rejection: " + test.firstFailure);
+        }
+    
+        List<Long> created = test.publish(events, intervalMs);
+        int expected = events * test.connected.get();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (test.latenciesNanos.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        test.report(expected);
+        test.cleanUp(created);
+        executor.shutdownNow();
+        System.exit(0);
+    }
+    
+    private void authenticate(String username, String password) throws Exception {
+        Map<String, String> credentials = Map.of(
+                "username", username, "password", password, "email", username + "@example.com");
+        HttpResponse<String> response = post("/api/auth/login", credentials);
+        if (response.statusCode() != 200) {
+            response = post("/api/auth/register", credentials);
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not sign in: " + response.statusCode() + " " + response.body());
+        }
+        token = objectMapper.readTree(response.body()).get("token").asText();
+    }
+    
+    // Opens openRate streams a second, like clients arriving, instead of one connect storm.
+    // Returns once every stream has answered (first comment received) or been refused, or a
+    // minute after the last was opened; streams still pending then are left out of the
+    // expected event count.
+    private void open(int connections, int openRate) throws Exception {
+        List<CompletableFuture<?>> opened = new ArrayList<>(connections);
+        int perTick = Math.max(1, openRate / 10);
+        for (int i = 0; i < connections; i++) {
+            if (i > 0 && i % perTick == 0) {
+                Thread.sleep(100);
+            }
+            CompletableFuture<Void> ready = new CompletableFuture<>();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/tasks/stream"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Accept", "text/event-stream")
+                    .build();
+            EventLines lines = new EventLines(ready);
+            client.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(lines))
+                    .whenComplete((response, error) -> {
+                        if (lines.opened) {
+                            closed.incrementAndGet();
+                        } else {
+                            rejected.incrementAndGet();
+                            if (firstFailure == null) {
+                                firstFailure = error != null ? error.toString() : "HTTP " + response.statusCode();
+                            }
+                        }
+                        ready.complete(null);
+                    });
+            opened.add(ready);
+        }
+        try {
+            CompletableFuture.allOf(opened.toArray(new CompletableFuture[0])).get(1, TimeUnit.MINUTES);
+        } catch (TimeoutException e) {
+            // reported as pending
+        }
+    }
+    
+    private List<Long> publish(int events, long intervalMs) throws Exception {
+        List<Long> ids = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            Map<String, String> task = Map.of("title", "stream-load-" + i, "status", "PENDING", "priority", "LOW");
+            sentAt.put(i, System.nanoTime());
+            HttpResponse<String> response = post("/api/tasks", task);
+            ids.add(objectMapper.readTree(response.body()).get("id").asLong());
+            Thread.sleep(intervalMs);
+        }
+        return ids;
+    }
+    
+    private void report(int expected) {
+        long[] sorted = latenciesNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("events: %d of %d delivered, %d streams closed by the server%n",
+                sorted.length, expected, closed.get());
+        if (sorted.length == 0) {
+            return;
+        }
+        System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f max=%.1f mean=%.1f%n",
+                millis(percentile(sorted, 50)), millis(percentile(sorted, 90)), millis(percentile(sorted, 99)),
+                millis(sorted[sorted.length - 1]), millis((long) Arrays.stream(sorted).average().orElse(0)));
+    }
+    
+    private void cleanUp(List<Long> ids) throws Exception {
+        for (int from = 0; from < ids.size(); from += 1000) {
+            post("/api/tasks/bulk/delete", Map.of("ids", ids.subList(from, Math.min(ids.size(), from + 1000))));
+        }
+    }
+    
+    private HttpResponse<String> post(String path, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+    
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+    
+    /**
+     * Reads one stream line by line and records the latency of every load-test event.
+     */
+    private class EventLines implements Flow.Subscriber<String> {
+    
+        private final CompletableFuture<Void> ready;
+        private volatile boolean opened;
+        private boolean created;
+    
+        EventLines(CompletableFuture<Void> ready) {
+            this.ready = ready;
+        }
+    
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+    
+        @Override
+        public void onNext(String line) {
+            if (line.equals(":connected")) {
+                opened = true;
+                connected.incrementAndGet();
+                ready.complete(null);
+            } else if (line.startsWith("event:")) {
+                created = line.equals("event:created");
+            } else if (created && line.startsWith("data:")) {
+                long receivedAt = System.nanoTime();
+                Matcher matcher = LOAD_TITLE.matcher(line);
+                if (matcher.find()) {
+                    Long sent = sentAt.get(Integer.parseInt(matcher.group(1)));
+                    if (sent != null) {
+                        latenciesNanos.add(receivedAt - sent);
+                    }
+                }
+            }
+        }
+    
+        @Override
+        public void onError(Throwable throwable) {
+        }
+    
+        @Override
+        public void onComplete() {
+        }
+    }
+}
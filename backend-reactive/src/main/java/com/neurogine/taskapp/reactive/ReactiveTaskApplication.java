@@ -0,0 +1,18 @@
+package com.neurogine.taskapp.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+
+/**
+ * Read-only task API on WebFlux and R2DBC, run beside the servlet backend against the same
+ * database. Only com.neurogine.taskapp.reactive is scanned; the backend classes on the
+ * classpath are used as plain types. Bearer tokens are the only credentials, so Boot's
+ * generated in-memory user is left out.
+ */
+@SpringBootApplication(exclude = ReactiveUserDetailsServiceAutoConfiguration.class)
+public class ReactiveTaskApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveTaskApplication.class, args);
+    }
+}
@@ -0,0 +1,68 @@
+package com.neurogine.taskapp.reactive.config;
+
+import com.neurogine.taskapp.reactive.repository.ReactiveTaskRepository;
+import com.neurogine.taskapp.reactive.security.JwtAuthWebFilter;
+import com.neurogine.taskapp.security.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import java.util.List;
+
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+    
+    // The backend's token settings, so tokens it issues are accepted here
+    @Bean
+    public JwtUtil jwtUtil(@Value("${jwt.secret}") String secret,
+                           @Value("${jwt.expiration}") long expiration,
+                           @Value("${jwt.verified-cache.enabled:true}") boolean cacheEnabled,
+                           @Value("${jwt.verified-cache.max-size:10000}") long cacheMaxSize) {
+        return new JwtUtil(secret, expiration, cacheEnabled, cacheMaxSize);
+    }
+    
+    @Bean
+    public SecurityWebFilterChain filterChain(ServerHttpSecurity http, JwtUtil jwtUtil,
+                                              ReactiveTaskRepository taskRepository, MeterRegistry meterRegistry) {
+        return http
+            .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+            .csrf(csrf -> csrf.disable())
+            .httpBasic(basic -> basic.disable())
+            .formLogin(form -> form.disable())
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange(auth -> auth
+                // Scraped without a token; actuator listens on management.server.port only
+                .matchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()
+                .anyExchange().authenticated()
+            )
+            // Same status as the servlet backend for a missing or invalid token
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+            .addFilterAt(new JwtAuthWebFilter(jwtUtil, taskRepository, meterRegistry), SecurityWebFiltersOrder.AUTHENTICATION)
+            .build();
+    }
+    
+    private UrlBasedCorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOrigins(List.of("http://localhost:5173"));
+        cors.setAllowedMethods(List.of("GET", "OPTIONS"));
+        cors.setAllowedHeaders(List.of("Content-Type", "Authorization"));
+        cors.setMaxAge(3600L);
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", cors);
+        return source;
+    }
+}
@@ -0,0 +1,240 @@
+package com.neurogine.taskapp.reactive.controller;
+
+import com.neurogine.taskapp.dto.TaskCursor;
+import com.neurogine.taskapp.dto.TaskFilter;
+import com.neurogine.taskapp.dto.TaskPage;
+import com.neurogine.taskapp.dto.TaskSort;
+import com.neurogine.taskapp.dto.TaskStatistics;
+import com.neurogine.taskapp.dto.TaskSummary;
+import com.neurogine.taskapp.model.Task;
+import com.neurogine.taskapp.model.TaskCounter;
+import com.neurogine.taskapp.reactive.repository.ReactiveTaskRepository;
+import com.neurogine.taskapp.repository.TsQuery;
+import com.neurogine.taskapp.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The read endpoints of the servlet TaskController with the same paths, parameters and JSON.
+ * List and search also stream every matching task, unpaged, as NDJSON or server-sent events
+ * when the client asks for application/x-ndjson or text/event-stream; rows are read from
+ * Postgres only as fast as the client takes them.
+ */
+@RestController
+@RequestMapping("/api/tasks")
+public class ReactiveTaskController {
+    
+    private final ReactiveTaskRepository taskRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    
+    public ReactiveTaskController(ReactiveTaskRepository taskRepository,
+                                  @Value("${tasks.page.default-size:50}") int defaultPageSize,
+                                  @Value("${tasks.page.max-size:200}") int maxPageSize) {
+        this.taskRepository = taskRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<TaskPage> getAllTasks(@RequestParam(required = false) String tag,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer size,
+                                      Authentication authentication) {
+        TaskFilter filter = new TaskFilter();
+        filter.setTag(tag);
+        return findPage(userId(authentication), filter, TaskSort.NEWEST, cursor, size);
+    }
+    
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<TaskSummary> streamAllTasks(@RequestParam(required = false) String tag,
+                                            Authentication authentication) {
+        TaskFilter filter = new TaskFilter();
+        filter.setTag(tag);
+        return taskRepository.stream(userId(authentication), normalized(filter), TaskSort.NEWEST);
+    }
+    
+    @GetMapping(path = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<TaskPage> searchTasks(TaskFilter filter,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer size,
+                                      Authentication authentication) {
+        TaskSort sort = resolveSort(filter);
+        if (sort == TaskSort.RELEVANCE) {
+            return search(userId(authentication), filter.getQuery(), cursor, resolvePageSize(size));
+        }
+        return findPage(userId(authentication), filter, sort, cursor, size);
+    }
+    
+    @GetMapping(path = "/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<TaskSummary> streamSearch(TaskFilter filter, Authentication authentication) {
+        TaskSort sort = resolveSort(filter);
+        if (sort == TaskSort.RELEVANCE) {
+            String tsQuery = TsQuery.prefixQuery(filter.getQuery());
+            return tsQuery.isEmpty() ? Flux.empty() : taskRepository.streamSearch(userId(authentication), tsQuery);
+        }
+        return taskRepository.stream(userId(authentication), normalized(filter), sort);
+    }
+    
+    @GetMapping("/statistics")
+    public Mono<TaskStatistics> getStatistics(Authentication authentication) {
+        Long userId = userId(authentication);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startOfToday = now.toLocalDate().atStartOfDay();
+        LocalDateTime endOfToday = startOfToday.plusDays(1);
+        LocalDateTime endOfWeek = startOfToday.plusWeeks(1);
+    
+        // Counters and due-date counts are independent queries and run at the same time
+        return Mono.zip(taskRepository.findCounters(userId).collectList(),
+                        taskRepository.countDue(userId, now, startOfToday, endOfToday, endOfWeek))
+                .map(result -> {
+                    Map<String, Long> byStatus = new HashMap<>();
+                    for (Task.TaskStatus status : Task.TaskStatus.values()) {
+                        byStatus.put(status.name(), 0L);
+                    }
+                    Map<String, Long> byPriority = new HashMap<>();
+                    for (Task.TaskPriority priority : Task.TaskPriority.values()) {
+                        byPriority.put(priority.name(), 0L);
+                    }
+    
+                    long total = 0;
+                    for (TaskCounter counter : result.getT1()) {
+                        if (counter.getDimension() == TaskCounter.Dimension.STATUS) {
+                            byStatus.put(counter.getBucket(), counter.getCount());
+                            total += counter.getCount();
+                        } else {
+                            byPriority.put(counter.getBucket(), counter.getCount());
+                        }
+                    }
+    
+                    TaskStatistics stats = new TaskStatistics();
+                    stats.setTotalTasks(total);
+                    stats.setByStatus(byStatus);
+                    stats.setByPriority(byPriority);
+                    stats.setOverdueTasksCount(result.getT2().getOverdue());
+                    stats.setTodayTasksCount(result.getT2().getDueToday());
+                    stats.setWeekTasksCount(result.getT2().getDueThisWeek());
+                    return stats;
+                });
+    }
+    
+    @GetMapping("/categories")
+    public Mono<List<String>> getCategories(Authentication authentication) {
+        return taskRepository.findCategories(userId(authentication)).collectList();
+    }
+    
+    // No pooled connection within spring.r2dbc.pool.max-acquire-time: turned away with the same
+    // response as the servlet backend's DbConcurrencyLimitFilter
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public ResponseEntity<Map<String, String>> databaseBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", "Server is busy. Please try again shortly."));
+    }
+    
+    private Mono<TaskPage> findPage(Long userId, TaskFilter filter, TaskSort sort, String cursor, Integer size) {
+        TaskCursor after;
+        try {
+            after = TaskCursor.decode(cursor, sort);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor"));
+        }
+        int pageSize = resolvePageSize(size);
+        return taskRepository.findPage(userId, normalized(filter), sort, after, pageSize + 1)
+                .collectList()
+                .map(rows -> TaskPage.of(rows, pageSize, sort));
+    }
+    
+    /**
+     * The ranked search of PostgresTaskSearchService, with its cursor format.
+     */
+    private Mono<TaskPage> search(Long userId, String query, String cursor, int size) {
+        String tsQuery = TsQuery.prefixQuery(query);
+        if (tsQuery.isEmpty()) {
+            return Mono.just(new TaskPage(List.of(), null));
+        }
+    
+        float afterRank = Float.MAX_VALUE;
+        long afterId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                afterRank = Float.parseFloat(raw.substring(0, separator));
+                afterId = Long.parseLong(raw.substring(separator + 1));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor"));
+            }
+        }
+    
+        return taskRepository.search(userId, tsQuery, afterRank, afterId, size + 1)
+                .collectList()
+                .map(rows -> {
+                    List<TaskSummary> items = rows.stream().map(Tuple2::getT1).toList();
+                    if (items.size() <= size) {
+                        return new TaskPage(items, null);
+                    }
+                    Tuple2<TaskSummary, Float> last = rows.get(size - 1);
+                    String raw = last.getT2() + "|" + last.getT1().getId();
+                    String nextCursor = Base64.getUrlEncoder().withoutPadding()
+                            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+                    return new TaskPage(items.subList(0, size), nextCursor);
+                });
+    }
+    
+    // A bare text query is ranked by relevance, anything else is ordered by the requested sort
+    private TaskSort resolveSort(TaskFilter filter) {
+        TaskSort sort = filter.getSort();
+        if (sort == null) {
+            sort = filter.hasQuery() && !filter.hasStructuredCriteria() ? TaskSort.RELEVANCE : TaskSort.NEWEST;
+        }
+        if (sort == TaskSort.RELEVANCE && (!filter.hasQuery() || filter.hasStructuredCriteria())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "sort=RELEVANCE requires a query and no other filters");
+        }
+        return sort;
+    }
+    
+    private TaskFilter normalized(TaskFilter filter) {
+        if (filter.getTag() != null) {
+            filter.setTag(filter.getTag().trim().toLowerCase(Locale.ROOT));
+        }
+        return filter;
+    }
+    
+    // AuthenticatedUser is a Principal, so WebFlux's own Principal resolver claims the argument
+    // before @AuthenticationPrincipal would; the user is taken from the Authentication instead
+    private static Long userId(Authentication authentication) {
+        return ((AuthenticatedUser) authentication.getPrincipal()).getId();
+    }
+    
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+}
@@ -0,0 +1,289 @@
+package com.neurogine.taskapp.reactive.repository;
+
+import com.neurogine.taskapp.dto.TaskCursor;
+import com.neurogine.taskapp.dto.TaskDueCounts;
+import com.neurogine.taskapp.dto.TaskFilter;
+import com.neurogine.taskapp.dto.TaskSort;
+import com.neurogine.taskapp.dto.TaskSummary;
+import com.neurogine.taskapp.model.Task;
+import com.neurogine.taskapp.model.TaskCounter;
+import com.neurogine.taskapp.repository.TsQuery;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import reactor.util.retry.Retry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The task reads of the servlet backend as SQL over R2DBC. Each query is the one Hibernate or
+ * JdbcTemplate sends there (TaskFilterRepositoryImpl, PostgresTaskSearchService and the
+ * statistics and category queries of TaskRepository), so both read paths hit the same indexes.
+ * Streams are read as keyset pages of {@code tasks.reactive.stream-page-size}, the next page
+ * only once the client has taken the last, so a slow reader holds one page of memory but no
+ * connection. At most {@code tasks.reactive.stream-max-concurrent} stream pages are read at
+ * once; the rest of the pool stays free for paged requests. Each page is its own query: a
+ * stream is not one snapshot, and a task that is re-dated while a DUE_DATE stream runs can be
+ * skipped or sent twice.
+ */
+@Repository
+public class ReactiveTaskRepository {
+    
+    private static final String SUMMARY_COLUMNS = "t.id, t.title, t.description, t.status, t.priority, t.due_date, " +
+            "t.category, t.tags, t.created_at, t.updated_at";
+    
+    private static final String SEARCH_SQL =
+            "WITH q AS (SELECT to_tsquery('simple', :query) AS query) " +
+            "SELECT * FROM (" +
+            "  SELECT " + SUMMARY_COLUMNS + ", ts_rank(t.search_vector, q.query) AS rank " +
+            "  FROM tasks t, q " +
+            "  WHERE t.user_id = :userId AND t.search_vector @@ q.query" +
+            ") ranked " +
+            "WHERE ranked.rank < CAST(:rank AS real) OR (ranked.rank = CAST(:rank AS real) AND ranked.id < :id) " +
+            "ORDER BY ranked.rank DESC, ranked.id DESC";
+    
+    private static final String DUE_COUNTS_SQL =
+            "SELECT COALESCE(SUM(CASE WHEN due_date < :now AND status <> 'COMPLETED' THEN 1 ELSE 0 END), 0) AS overdue, " +
+            "COALESCE(SUM(CASE WHEN due_date BETWEEN :startOfToday AND :endOfToday THEN 1 ELSE 0 END), 0) AS due_today, " +
+            "COALESCE(SUM(CASE WHEN due_date BETWEEN :now AND :endOfWeek THEN 1 ELSE 0 END), 0) AS due_this_week " +
+            "FROM tasks WHERE user_id = :userId AND due_date <= :endOfWeek";
+    
+    // A page waiting for its turn backs off here instead of queueing in the pool ahead of
+    // paged requests; once given up on, the error is the one the controller answers with 503
+    private static final Retry STREAM_PAGE_RETRY = Retry.backoff(20, Duration.ofMillis(50))
+            .maxBackoff(Duration.ofSeconds(1))
+            .filter(DataAccessResourceFailureException.class::isInstance)
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    
+    private final DatabaseClient databaseClient;
+    private final int streamPageSize;
+    private final int streamMaxConcurrent;
+    private final AtomicInteger streamPagesRunning = new AtomicInteger();
+    
+    public ReactiveTaskRepository(DatabaseClient databaseClient,
+                                  @Value("${tasks.reactive.stream-page-size:500}") int streamPageSize,
+                                  @Value("${tasks.reactive.stream-max-concurrent:4}") int streamMaxConcurrent) {
+        this.databaseClient = databaseClient;
+        this.streamPageSize = streamPageSize;
+        this.streamMaxConcurrent = streamMaxConcurrent;
+    }
+    
+    /**
+     * One page of the filtered list in the given order, after the cursor; fetch one row more
+     * than the page size to learn whether another page follows.
+     */
+    public Flux<TaskSummary> findPage(Long userId, TaskFilter filter, TaskSort sort, TaskCursor after, int limit) {
+        return filtered(userId, filter, sort, after, limit);
+    }
+    
+    /**
+     * Every task matching the filter, in the given order.
+     */
+    public Flux<TaskSummary> stream(Long userId, TaskFilter filter, TaskSort sort) {
+        return paged(streamPage(findPage(userId, filter, sort, null, streamPageSize)),
+                page -> {
+                    TaskSummary last = page.get(page.size() - 1);
+                    return streamPage(findPage(userId, filter, sort,
+                            new TaskCursor(sort, sort.keyOf(last), last.getId()), streamPageSize));
+                });
+    }
+    
+    /**
+     * Text search ranked by relevance, each task with its rank for the next cursor.
+     */
+    public Flux<Tuple2<TaskSummary, Float>> search(Long userId, String tsQuery, float afterRank, long afterId, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("query", tsQuery);
+        params.put("userId", userId);
+        params.put("rank", afterRank);
+        params.put("id", afterId);
+        params.put("limit", limit);
+        return databaseClient.sql(SEARCH_SQL + " LIMIT :limit")
+                .bindValues(params)
+                .map((row, metadata) -> Tuples.of(toSummary(row), row.get("rank", Float.class)))
+                .all();
+    }
+    
+    /**
+     * Every match of the text search, most relevant first.
+     */
+    public Flux<TaskSummary> streamSearch(Long userId, String tsQuery) {
+        return paged(streamPage(search(userId, tsQuery, Float.MAX_VALUE, Long.MAX_VALUE, streamPageSize)),
+                page -> {
+                    Tuple2<TaskSummary, Float> last = page.get(page.size() - 1);
+                    return streamPage(search(userId, tsQuery, last.getT2(), last.getT1().getId(), streamPageSize));
+                })
+                .map(Tuple2::getT1);
+    }
+    
+    public Flux<TaskCounter> findCounters(Long userId) {
+        return databaseClient.sql("SELECT dimension, bucket, task_count FROM task_counters WHERE user_id = :userId")
+                .bind("userId", userId)
+                .map((row, metadata) -> {
+                    TaskCounter counter = new TaskCounter();
+                    counter.setUserId(userId);
+                    counter.setDimension(TaskCounter.Dimension.valueOf(row.get("dimension", String.class)));
+                    counter.setBucket(row.get("bucket", String.class));
+                    counter.setCount(row.get("task_count", Long.class));
+                    return counter;
+                })
+                .all();
+    }
+    
+    public Mono<TaskDueCounts> countDue(Long userId, LocalDateTime now, LocalDateTime startOfToday,
+                                        LocalDateTime endOfToday, LocalDateTime endOfWeek) {
+        return databaseClient.sql(DUE_COUNTS_SQL)
+                .bind("userId", userId)
+                .bind("now", now)
+                .bind("startOfToday", startOfToday)
+                .bind("endOfToday", endOfToday)
+                .bind("endOfWeek", endOfWeek)
+                .map((row, metadata) -> new TaskDueCounts(row.get("overdue", Long.class),
+                        row.get("due_today", Long.class), row.get("due_this_week", Long.class)))
+                .one();
+    }
+    
+    public Flux<String> findCategories(Long userId) {
+        return databaseClient.sql("SELECT DISTINCT category FROM tasks WHERE user_id = :userId AND category IS NOT NULL")
+                .bind("userId", userId)
+                .map((row, metadata) -> row.get("category", String.class))
+                .all();
+    }
+    
+    public Mono<Long> findUserId(String username) {
+        return databaseClient.sql("SELECT id FROM users WHERE username = :username")
+                .bind("username", username)
+                .map((row, metadata) -> row.get("id", Long.class))
+                .one();
+    }
+    
+    private Flux<TaskSummary> filtered(Long userId, TaskFilter filter, TaskSort sort, TaskCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(SUMMARY_COLUMNS)
+                .append(" FROM tasks t WHERE t.user_id = :userId");
+        Map<String, Object> params = new HashMap<>();
+        params.put("userId", userId);
+    
+        if (filter.hasQuery()) {
+            String tsQuery = TsQuery.prefixQuery(filter.getQuery());
+            if (tsQuery.isEmpty()) {
+                return Flux.empty();
+            }
+            sql.append(" AND t.search_vector @@ to_tsquery('simple', :query)");
+            params.put("query", tsQuery);
+        }
+        if (filter.getStatus() != null && !filter.getStatus().isEmpty()) {
+            sql.append(" AND t.status IN (:status)");
+            params.put("status", filter.getStatus().stream().map(Enum::name).toList());
+        }
+        if (filter.getPriority() != null && !filter.getPriority().isEmpty()) {
+            sql.append(" AND t.priority IN (:priority)");
+            params.put("priority", filter.getPriority().stream().map(Enum::name).toList());
+        }
+        if (filter.getCategory() != null) {
+            sql.append(" AND t.category = :category");
+            params.put("category", filter.getCategory());
+        }
+        if (filter.getTag() != null && !filter.getTag().isBlank()) {
+            sql.append(" AND EXISTS (SELECT 1 FROM task_tags tt WHERE tt.user_id = :userId AND tt.tag = :tag " +
+                    "AND tt.task_id = t.id)");
+            params.put("tag", filter.getTag());
+        }
+        if (filter.getDueFrom() != null) {
+            sql.append(" AND t.due_date >= :dueFrom");
+            params.put("dueFrom", filter.getDueFrom());
+        }
+        if (filter.getDueTo() != null) {
+            sql.append(" AND t.due_date < :dueTo");
+            params.put("dueTo", filter.getDueTo());
+        }
+        if (filter.getOverdue() != null) {
+            String overdue = "(t.due_date < :now AND t.status <> 'COMPLETED')";
+            sql.append(filter.getOverdue() ? " AND " + overdue : " AND (t.due_date IS NULL OR NOT " + overdue + ")");
+            params.put("now", LocalDateTime.now());
+        }
+    
+        String key = sort == TaskSort.DUE_DATE ? "t.due_date" : "t.created_at";
+        if (after != null) {
+            sql.append(" AND ").append(afterCursor(key, sort, after));
+            params.put("afterId", after.getId());
+            if (after.getKey() != null) {
+                params.put("afterKey", after.getKey());
+            }
+        }
+        // Postgres sorts nulls last in ascending order, so undated tasks end the DUE_DATE list
+        if (sort == TaskSort.NEWEST) {
+            sql.append(" ORDER BY ").append(key).append(" DESC, t.id DESC");
+        } else {
+            sql.append(" ORDER BY ").append(key).append(", t.id");
+        }
+        sql.append(" LIMIT :limit");
+        params.put("limit", limit);
+        return databaseClient.sql(sql.toString())
+                .bindValues(params)
+                .map((row, metadata) -> toSummary(row))
+                .all();
+    }
+    
+    private static String afterCursor(String key, TaskSort sort, TaskCursor after) {
+        // Same predicates as TaskFilterRepositoryImpl, including the redundant range bound
+        if (sort == TaskSort.NEWEST) {
+            return "(" + key + " <= :afterKey AND (" + key + " < :afterKey OR t.id < :afterId))";
+        }
+        if (sort == TaskSort.DUE_DATE && after.getKey() == null) {
+            return "(" + key + " IS NULL AND t.id > :afterId)";
+        }
+        String later = "(" + key + " >= :afterKey AND (" + key + " > :afterKey OR t.id > :afterId))";
+        return sort == TaskSort.DUE_DATE ? "(" + later + " OR " + key + " IS NULL)" : later;
+    }
+    
+    /**
+     * Emits the rows of the first page and of each following one, querying the next page only
+     * when the previous one has been taken downstream; a short page is the last.
+     */
+    private <T> Flux<T> paged(Mono<List<T>> first, Function<List<T>, Mono<List<T>>> next) {
+        return first
+                .expand(page -> page.size() < streamPageSize ? Mono.empty() : next.apply(page))
+                .flatMapIterable(page -> page, 1);
+    }
+    
+    /**
+     * Reads one stream page once fewer than stream-max-concurrent are being read. A page that
+     * still finds no pooled connection is retried too, so a stream whose response has started
+     * is not cut off by a moment of contention.
+     */
+    private <T> Mono<List<T>> streamPage(Flux<T> query) {
+        return Mono.defer(() -> {
+                    if (streamPagesRunning.incrementAndGet() > streamMaxConcurrent) {
+                        streamPagesRunning.decrementAndGet();
+                        return Mono.error(new DataAccessResourceFailureException("Too many stream pages being read"));
+                    }
+                    return query.collectList().doFinally(signal -> streamPagesRunning.decrementAndGet());
+                })
+                .retryWhen(STREAM_PAGE_RETRY);
+    }
+    
+    private static TaskSummary toSummary(Readable row) {
+        return new TaskSummary(
+                row.get("id", Long.class),
+                row.get("title", String.class),
+                row.get("description", String.class),
+                Task.TaskStatus.valueOf(row.get("status", String.class)),
+                Task.TaskPriority.valueOf(row.get("priority", String.class)),
+                row.get("due_date", LocalDateTime.class),
+                row.get("category", String.class),
+                row.get("tags", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class));
+    }
+}
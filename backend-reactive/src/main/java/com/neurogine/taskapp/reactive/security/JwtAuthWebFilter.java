@@ -0,0 +1,68 @@
+package com.neurogine.taskapp.reactive.security;
+
+import com.neurogine.taskapp.reactive.repository.ReactiveTaskRepository;
+import com.neurogine.taskapp.security.AuthenticatedUser;
+import com.neurogine.taskapp.security.JwtUtil;
+import com.neurogine.taskapp.security.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The servlet JwtAuthFilter for WebFlux: a valid bearer token puts an {@link AuthenticatedUser}
+ * into the reactive security context, anything else leaves the request anonymous. Verification
+ * is CPU-only (and usually a cache hit), so it runs on the event loop.
+ */
+public class JwtAuthWebFilter implements WebFilter {
+    
+    private static final List<GrantedAuthority> AUTHORITIES = AuthorityUtils.createAuthorityList("USER");
+    
+    private final JwtUtil jwtUtil;
+    private final ReactiveTaskRepository taskRepository;
+    private final Timer filterTime;
+    
+    public JwtAuthWebFilter(JwtUtil jwtUtil, ReactiveTaskRepository taskRepository, MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.taskRepository = taskRepository;
+        this.filterTime = Timer.builder("security.filter.time")
+                .description("Time spent in the filter itself, excluding the rest of the chain")
+                .tag("filter", "jwt-auth")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        VerifiedToken verified = authHeader != null && authHeader.startsWith("Bearer ")
+                ? jwtUtil.verify(authHeader.substring(7)) : null;
+        filterTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (verified == null) {
+            return chain.filter(exchange);
+        }
+    
+        // Tokens issued before the uid claim existed fall back to a lookup
+        Mono<Long> userId = verified.getUserId() != null
+                ? Mono.just(verified.getUserId())
+                : taskRepository.findUserId(verified.getUsername());
+        return userId
+                .map(id -> Optional.<Authentication>of(new UsernamePasswordAuthenticationToken(
+                        new AuthenticatedUser(id, verified.getUsername()), null, AUTHORITIES)))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(authentication -> authentication
+                        .map(auth -> chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth)))
+                        .orElseGet(() -> chain.filter(exchange)));
+    }
+}
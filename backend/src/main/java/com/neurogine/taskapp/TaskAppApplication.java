@@ -2,8 +2,10 @@ package com.neurogine.taskapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
 
-@SpringBootApplication
+// Requests authenticate with JWTs only; without this Boot would add an in-memory user
+@SpringBootApplication(exclude = UserDetailsServiceAutoConfiguration.class)
 public class TaskAppApplication {
     public static void main(String[] args) {
         SpringApplication.run(TaskAppApplication.class, args);
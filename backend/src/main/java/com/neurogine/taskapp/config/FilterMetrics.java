@@ -0,0 +1,24 @@
+package com.neurogine.taskapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters shared by the servlet filters (RateLimitFilter, JwtAuthFilter), so each reports
+ * under the same names and tags.
+ */
+public final class FilterMetrics {
+    
+    private FilterMetrics() {
+    }
+    
+    /**
+     * Time a filter spends on a request itself, without the rest of the chain.
+     */
+    public static Timer filterTimer(MeterRegistry meterRegistry, String filter) {
+        return Timer.builder("security.filter.time")
+                .description("Time spent in the filter itself, excluding the rest of the chain")
+                .tag("filter", filter)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,74 @@
+package com.neurogine.taskapp.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Regions of Hibernate's second-level cache, each a bounded Caffeine cache. Hibernate keeps
+ * them in step with its own writes, bulk JPQL and native statements that declare their query
+ * spaces; rows changed through JdbcTemplate are invisible to it, so entities cached here must
+ * only be written through JPA. TaskVersion is left out for that reason: its bump is a native
+ * upsert with RETURNING, which Hibernate runs as a query and does not see as a write.
+ *
+ * <p>The regions are local to each instance and nothing invalidates them across instances, so
+ * this assumes a single backend node: with several, a write on one leaves the others serving
+ * the old task or counter until the entry expires, and a 304 can confirm it. A read served by a
+ * lagging replica can likewise cache a value up to tasks.datasource.replicas.max-lag old. The
+ * TTLs are kept short to bound both; run several nodes with the caches switched off
+ * (hibernate.cache.use_second_level_cache and use_query_cache) or on a clustered JCache provider.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    
+    // As named in the entities' @Cache
+    private static final String TASK_REGION = "task";
+    private static final String USER_REGION = "user";
+    private static final String TASK_COUNTER_REGION = "taskCounter";
+    
+    // Hibernate's default names for cached query results and for the per-table change
+    // timestamps it checks them against
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+    
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${tasks.second-level-cache.task.max-size:50000}") long taskMaxSize,
+                                              @Value("${tasks.second-level-cache.task.ttl:PT1M}") Duration taskTtl,
+                                              @Value("${tasks.second-level-cache.user.max-size:10000}") long userMaxSize,
+                                              @Value("${tasks.second-level-cache.user.ttl:PT5M}") Duration userTtl,
+                                              @Value("${tasks.second-level-cache.counter.max-size:50000}") long counterMaxSize,
+                                              @Value("${tasks.second-level-cache.counter.ttl:PT1M}") Duration counterTtl,
+                                              @Value("${tasks.second-level-cache.query.max-size:20000}") long queryMaxSize,
+                                              @Value("${tasks.second-level-cache.query.ttl:PT1M}") Duration queryTtl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        cacheManager.createCache(TASK_REGION, region(taskMaxSize, taskTtl));
+        cacheManager.createCache(USER_REGION, region(userMaxSize, userTtl));
+        cacheManager.createCache(TASK_COUNTER_REGION, region(counterMaxSize, counterTtl));
+        cacheManager.createCache(QUERY_RESULTS_REGION, region(queryMaxSize, queryTtl));
+        // One entry per table; evicting one would make Hibernate distrust every query over it
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>().setStoreByValue(false));
+        return cacheManager;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+    
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        // Hibernate caches immutable disassembled state, so entries need no defensive copy
+        return new CaffeineConfiguration<>()
+                .setStoreByValue(false)
+                .setMaximumSize(OptionalLong.of(maxSize))
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+    }
+}
@@ -0,0 +1,112 @@
+package com.neurogine.taskapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Times every JDBC statement the application runs and logs the slow ones. The application's
+ * DataSource (the routing proxy when read replicas are on) is wrapped, so Hibernate, JdbcTemplate
+ * and Flyway are all covered. Together with Boot's spring.data.repository.invocations and
+ * hikaricp.connections.acquire this splits a repository call into pool wait and statement time.
+ * Statement time covers execution and the first batch of rows, not later fetches.
+ */
+@Configuration
+public class JdbcInstrumentationConfig {
+    
+    @Bean
+    public static BeanPostProcessor statementTimingPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${tasks.jdbc.slow-query.threshold:PT0.5S}") Duration threshold,
+            @Value("${tasks.jdbc.slow-query.batch-threshold:PT2S}") Duration batchThreshold,
+            @Value("${tasks.jdbc.slow-query.log-parameters:true}") boolean logParameters) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name("taskapp")
+                        .listener(new StatementListener(meterRegistry.getObject(), threshold, batchThreshold, logParameters))
+                        .build();
+            }
+        };
+    }
+    
+    static class StatementListener implements QueryExecutionListener {
+    
+        private static final Logger slowQueryLog = LoggerFactory.getLogger("com.neurogine.taskapp.jdbc.slow");
+    
+        private final Map<QueryType, Timer> statements = new EnumMap<>(QueryType.class);
+        private final Map<QueryType, Timer> batches = new EnumMap<>(QueryType.class);
+        private final long thresholdMillis;
+        private final long batchThresholdMillis;
+        private final DefaultQueryLogEntryCreator entryCreator;
+    
+        StatementListener(MeterRegistry meterRegistry, Duration threshold, Duration batchThreshold,
+                          boolean logParameters) {
+            for (QueryType type : QueryType.values()) {
+                statements.put(type, timer(meterRegistry, type, false));
+                batches.put(type, timer(meterRegistry, type, true));
+            }
+            this.thresholdMillis = threshold.toMillis();
+            this.batchThresholdMillis = batchThreshold.toMillis();
+            this.entryCreator = new DefaultQueryLogEntryCreator() {
+                @Override
+                protected void writeParamsEntry(StringBuilder sb, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                    if (logParameters) {
+                        super.writeParamsEntry(sb, execInfo, queryInfoList);
+                    }
+                }
+            };
+        }
+    
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+    
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            long elapsed = execInfo.getElapsedTime();
+            QueryType type = queryInfoList.isEmpty()
+                    ? QueryType.OTHER : QueryUtils.getQueryType(queryInfoList.get(0).getQuery());
+            (execInfo.isBatch() ? batches : statements).get(type).record(elapsed, TimeUnit.MILLISECONDS);
+            if (elapsed >= (execInfo.isBatch() ? batchThresholdMillis : thresholdMillis) && slowQueryLog.isWarnEnabled()) {
+                slowQueryLog.warn("Slow statement {} {}", kv("durationMs", elapsed),
+                        entryCreator.getLogEntry(execInfo, queryInfoList, false, false, false));
+            }
+        }
+    
+        private static Timer timer(MeterRegistry meterRegistry, QueryType type, boolean batch) {
+            return Timer.builder("tasks.jdbc.statements")
+                    .description("JDBC statement execution time, by statement type")
+                    .tag("type", type.name().toLowerCase(Locale.ROOT))
+                    .tag("batch", String.valueOf(batch))
+                    .register(meterRegistry);
+        }
+    }
+}
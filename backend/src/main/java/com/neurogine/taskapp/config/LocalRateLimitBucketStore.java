@@ -0,0 +1,52 @@
+package com.neurogine.taskapp.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+
+/**
+ * In-memory buckets, bounded in count and dropped once idle. A dropped bucket comes back full,
+ * so the idle expiry must be longer than the slowest refill period.
+ */
+@Component
+@ConditionalOnProperty(name = "security.rate-limit.store", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimitBucketStore implements RateLimitBucketStore {
+    
+    private final Cache<String, Bucket> buckets;
+    
+    public LocalRateLimitBucketStore(MeterRegistry meterRegistry,
+                                     @Value("${security.rate-limit.max-buckets:100000}") long maxBuckets,
+                                     @Value("${security.rate-limit.idle-expiry:PT10M}") Duration idleExpiry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleExpiry)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+    }
+    
+    @Override
+    public Bucket resolve(String key, BucketConfiguration configuration) {
+        return buckets.get(key, k -> {
+            LocalBucketBuilder builder = Bucket.builder();
+            for (Bandwidth bandwidth : configuration.getBandwidths()) {
+                builder.addLimit(bandwidth);
+            }
+            return builder.build();
+        });
+    }
+    
+    @Override
+    public long bucketCount() {
+        return buckets.estimatedSize();
+    }
+}
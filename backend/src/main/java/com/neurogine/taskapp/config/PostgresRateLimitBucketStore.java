@@ -0,0 +1,70 @@
+package com.neurogine.taskapp.config;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.jdbc.BucketTableSettings;
+import io.github.bucket4j.distributed.jdbc.PrimaryKeyMapper;
+import io.github.bucket4j.distributed.jdbc.SQLProxyConfiguration;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.postgresql.PostgreSQLSelectForUpdateBasedProxyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buckets kept in the rate_limit_buckets table, so all replicas draw from the same limits.
+ * Each check locks the bucket's row for one short transaction. Postgres cannot expire rows,
+ * so a trigger stamps touched_at on every update and idle buckets are purged on a schedule.
+ */
+@Component
+@ConditionalOnProperty(name = "security.rate-limit.store", havingValue = "postgres")
+public class PostgresRateLimitBucketStore implements RateLimitBucketStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PostgresRateLimitBucketStore.class);
+    
+    private final ProxyManager<String> proxyManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration idleExpiry;
+    // Counted when idle buckets are purged, not on every scrape
+    private final AtomicLong bucketCount = new AtomicLong();
+    
+    public PostgresRateLimitBucketStore(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                        @Value("${security.rate-limit.idle-expiry:PT10M}") Duration idleExpiry) {
+        SQLProxyConfiguration<String> configuration = SQLProxyConfiguration.builder()
+                .withPrimaryKeyMapper(PrimaryKeyMapper.STRING)
+                .withTableSettings(BucketTableSettings.customSettings("rate_limit_buckets", "id", "state"))
+                .build(dataSource);
+        this.proxyManager = new PostgreSQLSelectForUpdateBasedProxyManager<>(configuration);
+        this.jdbcTemplate = jdbcTemplate;
+        this.idleExpiry = idleExpiry;
+    }
+    
+    @Override
+    public Bucket resolve(String key, BucketConfiguration configuration) {
+        return proxyManager.builder().build(key, configuration);
+    }
+    
+    @Scheduled(initialDelayString = "${security.rate-limit.idle-expiry:PT10M}",
+               fixedDelayString = "${security.rate-limit.idle-expiry:PT10M}")
+    public void purgeIdle() {
+        int purged = jdbcTemplate.update(
+                "DELETE FROM rate_limit_buckets WHERE touched_at < now() - ? * interval '1 second'",
+                idleExpiry.toSeconds());
+        if (purged > 0) {
+            logger.debug("Purged {} idle rate limit buckets", purged);
+        }
+        bucketCount.set(jdbcTemplate.queryForObject("SELECT count(*) FROM rate_limit_buckets", Long.class));
+    }
+    
+    @Override
+    public long bucketCount() {
+        return bucketCount.get();
+    }
+}
@@ -0,0 +1,14 @@
+package com.neurogine.taskapp.config;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * Where {@link RateLimitFilter} keeps its token buckets. The local store is per process;
+ * the Postgres store shares every bucket between replicas, so limits hold cluster-wide.
+ */
+public interface RateLimitBucketStore {
+    Bucket resolve(String key, BucketConfiguration configuration);
+
+    long bucketCount();
+}
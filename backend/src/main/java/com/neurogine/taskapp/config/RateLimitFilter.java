@@ -1,63 +1,169 @@
 package com.neurogine.taskapp.config;
 
+import com.neurogine.taskapp.security.AuthenticatedUser;
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
+/**
+ * Auth endpoints are limited per client IP and route; the task API per signed-in user, across
+ * all its routes. Runs after the security filter chain, so the user is already known.
+ */
 @Component
 @Order(2)
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    // Auth routes with a bucket of their own; any other /api/auth/ path shares one
+    private static final Set<String> AUTH_ROUTES = Set.of("/api/auth/login", "/api/auth/register");
+    private static final String OTHER_AUTH_ROUTES = "/api/auth/**";
+    // IpAddressMatcher resolves anything else through DNS
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9a-fA-F:.]+");
+
+    private final RateLimitBucketStore bucketStore;
+    private final BucketConfiguration authLimit;
+    private final BucketConfiguration taskLimit;
+    private final List<IpAddressMatcher> trustedProxies;
+    private final Counter authRejected;
+    private final Counter taskRejected;
+    private final Timer filterTime;
+
+    public RateLimitFilter(RateLimitBucketStore bucketStore, MeterRegistry meterRegistry,
+                           @Value("${security.rate-limit.auth.capacity:10}") long authCapacity,
+                           @Value("${security.rate-limit.auth.period:PT1M}") Duration authPeriod,
+                           @Value("${security.rate-limit.tasks.capacity:1200}") long taskCapacity,
+                           @Value("${security.rate-limit.tasks.period:PT1M}") Duration taskPeriod,
+                           @Value("${security.rate-limit.trusted-proxies:}") List<String> trustedProxies) {
+        this.bucketStore = bucketStore;
+        // Auth refills all at once per period, as before; the task API refills gradually so a
+        // busy client is slowed down rather than locked out until the minute is up
+        this.authLimit = BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(authCapacity, Refill.intervally(authCapacity, authPeriod)))
+                .build();
+        this.taskLimit = BucketConfiguration.builder()
+                .addLimit(Bandwidth.classic(taskCapacity, Refill.greedy(taskCapacity, taskPeriod)))
+                .build();
+        this.trustedProxies = trustedProxies.stream()
+                .filter(proxy -> !proxy.isBlank())
+                .map(proxy -> new IpAddressMatcher(proxy.trim()))
+                .toList();
+        this.authRejected = rejectedCounter(meterRegistry, "auth");
+        this.taskRejected = rejectedCounter(meterRegistry, "tasks");
+        this.filterTime = FilterMetrics.filterTimer(meterRegistry, "rate-limit");
+        Gauge.builder("security.rate-limit.buckets", bucketStore, RateLimitBucketStore::bucketCount)
+                .description("Token buckets held by the rate limiter")
+                .register(meterRegistry);
+    }
 
     @Override
-    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        String endpoint = request.getRequestURI();
-        
-        // Apply rate limiting only to auth endpoints
-        if (endpoint.startsWith("/api/auth/")) {
-            String key = getClientIP(request) + ":" + endpoint;
-            Bucket bucket = resolveBucket(key);
-            
-            if (!bucket.tryConsume(1)) {
-                response.setStatus(429);
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
+        long start = System.nanoTime();
+        try {
+            if (!admit(request, response)) {
                 return;
             }
+        } finally {
+            filterTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
-        
         filterChain.doFilter(request, response);
     }
 
-    private Bucket resolveBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createNewBucket());
+    private boolean admit(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String endpoint = request.getRequestURI();
+
+        if (endpoint.startsWith("/api/auth/")) {
+            // Keyed by known route, not raw URI, so random paths cannot mint new buckets
+            String route = AUTH_ROUTES.contains(endpoint) ? endpoint : OTHER_AUTH_ROUTES;
+            String key = "auth:" + getClientIP(request) + ":" + route;
+            return tryConsume(key, authLimit, authRejected, response);
+        }
+        if (endpoint.startsWith("/api/tasks")) {
+            Long userId = currentUserId();
+            return userId == null || tryConsume("tasks:" + userId, taskLimit, taskRejected, response);
+        }
+        return true;
     }
 
-    private Bucket createNewBucket() {
-        // 10 requests per minute
-        Bandwidth limit = Bandwidth.classic(10, Refill.intervally(10, Duration.ofMinutes(1)));
-        return Bucket.builder().addLimit(limit).build();
+    private boolean tryConsume(String key, BucketConfiguration limit, Counter rejected,
+                               HttpServletResponse response) throws IOException {
+        ConsumptionProbe probe = bucketStore.resolve(key, limit).tryConsumeAndReturnRemaining(1);
+        if (probe.isConsumed()) {
+            return true;
+        }
+        rejected.increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill()));
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
+        return false;
     }
 
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    // X-Forwarded-For is only believed when it was added by a trusted proxy: walking from the
+    // nearest hop, the first address that is not one of ours is the client
     private String getClientIP(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
         String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            return request.getRemoteAddr();
+        if (xfHeader == null || !isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+        String[] hops = xfHeader.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !isTrustedProxy(hop)) {
+                return hop;
+            }
         }
-        return xfHeader.split(",")[0];
+        return remoteAddr;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        if (trustedProxies.isEmpty() || !IP_LITERAL.matcher(address).matches()) {
+            return false;
+        }
+        for (IpAddressMatcher proxy : trustedProxies) {
+            if (proxy.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("security.rate-limit.rejected")
+                .description("Requests refused with 429 by the rate limiter")
+                .tag("scope", scope)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,216 @@
+package com.neurogine.taskapp.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neurogine.taskapp.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read side of the routing set up in ReplicaRoutingConfig: hands out connections to the
+ * healthy replicas in turn. A replica is healthy while its last check succeeded and it was no
+ * further behind than tasks.datasource.replicas.max-lag. A user who committed a write within
+ * the read-your-writes window reads from the primary, as does everyone when no replica is
+ * healthy. Writes are recorded per instance only, so the window is best kept longer than the
+ * maximum lag plus the check interval. Replicas are checked on a thread of their own: on
+ * Spring's shared scheduler, a long job such as counter reconciliation would leave the lag
+ * unchecked while reads kept going to a replica that had fallen behind.
+ */
+public class ReplicaDataSource extends AbstractDataSource {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+    
+    // A primary answers 0; a replica with nothing left to replay too, even if idle for hours
+    private static final String LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() " +
+            "THEN 0 ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+    
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final double maxLagSeconds;
+    private final Cache<Long, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter recentWriteReads;
+    private final Counter fallbackReads;
+    private final ScheduledExecutorService healthChecks;
+    
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> replicas, Duration maxLag,
+                             Duration readYourWritesWindow, Duration healthCheckInterval,
+                             MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.recentWriteReads = readCounter(meterRegistry, "primary-recent-write");
+        this.fallbackReads = readCounter(meterRegistry, "primary-no-replica");
+        for (Replica replica : this.replicas) {
+            Gauge.builder("tasks.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag at the last health check, in seconds")
+                    .baseUnit("seconds")
+                    .tag("pool", replica.dataSource.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("tasks.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1 while the replica receives reads")
+                    .tag("pool", replica.dataSource.getPoolName())
+                    .register(meterRegistry);
+        }
+        checkReplicas();
+        for (Replica replica : this.replicas) {
+            if (!replica.healthy) {
+                logger.warn("Read replica {} is not available yet; reads use the primary until it is",
+                        replica.dataSource.getPoolName());
+            }
+        }
+        this.healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = healthCheckInterval.toMillis();
+        healthChecks.scheduleWithFixedDelay(() -> {
+            // An exception escaping here would cancel every later check
+            try {
+                checkReplicas();
+            } catch (RuntimeException e) {
+                logger.error("Read replica health check failed", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        Long userId = currentUserId();
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            recentWriteReads.increment();
+            return primary.getConnection();
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                markUnhealthy(replica, e.getMessage());
+            }
+        }
+        fallbackReads.increment();
+        return primary.getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Replica connections use the configured credentials");
+    }
+    
+    /**
+     * Wraps the primary so that every committed read-write transaction of a signed-in user
+     * opens that user's read-your-writes window.
+     */
+    public DataSource trackingWrites(DataSource primary) {
+        return new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Long userId = currentUserId();
+                if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()
+                        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            recentWriters.put(userId, Boolean.TRUE);
+                        }
+                    });
+                }
+                return super.getConnection();
+            }
+        };
+    }
+    
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(5);
+                try (ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                    rs.next();
+                    replica.lagSeconds = rs.getDouble(1);
+                }
+                if (replica.lagSeconds > maxLagSeconds) {
+                    markUnhealthy(replica, "lagging " + replica.lagSeconds + " s behind");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    logger.info("Read replica {} is serving reads", replica.dataSource.getPoolName());
+                }
+            } catch (SQLException e) {
+                markUnhealthy(replica, e.getMessage());
+            }
+        }
+    }
+    
+    public void close() {
+        healthChecks.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+    
+    private static void markUnhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("Read replica {} taken out of rotation: {}", replica.dataSource.getPoolName(), reason);
+        }
+    }
+    
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return null;
+    }
+    
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("tasks.datasource.reads")
+                .description("Read-only connections handed out, by where they went")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+    
+    private static class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+    
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
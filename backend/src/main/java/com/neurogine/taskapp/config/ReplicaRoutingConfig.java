@@ -0,0 +1,78 @@
+package com.neurogine.taskapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to read replicas. The application's DataSource becomes a lazy
+ * proxy that only takes a physical connection at the first statement, by which time the
+ * transaction has marked it read-only or not: read-write work goes to spring.datasource,
+ * read-only work to ReplicaDataSource. Replicas use spring.datasource's credentials.
+ * Relies on open-in-view being off, as a request that kept its first connection could
+ * otherwise write on a replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${tasks.datasource.replicas.urls}") List<String> urls,
+                                               @Value("${tasks.datasource.replicas.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+                                               @Value("${tasks.datasource.replicas.connection-timeout:PT1S}") Duration connectionTimeout,
+                                               @Value("${tasks.datasource.replicas.max-lag:PT2S}") Duration maxLag,
+                                               @Value("${tasks.datasource.replicas.read-your-writes-window:PT5S}") Duration readYourWritesWindow,
+                                               @Value("${tasks.datasource.replicas.health-check-interval:PT2S}") Duration healthCheckInterval) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            // A replica that is down must fail fast, so reads fall back to the primary
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, maxLag, readYourWritesWindow, healthCheckInterval,
+                meterRegistry);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy routing =
+                new LazyConnectionDataSourceProxy(replicaDataSource.trackingWrites(primaryDataSource));
+        routing.setReadOnlyDataSource(replicaDataSource);
+        return routing;
+    }
+}
@@ -0,0 +1,128 @@
+package com.neurogine.taskapp.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
+/**
+ * Tags every log line of a request with a request id (the caller's X-Request-Id if it looks
+ * like one, otherwise a new one, echoed back either way) and writes a sampled access log. 5xx
+ * responses and slow requests are always logged; the rest with tasks.access-log.sample-rate.
+ * Entries name the route pattern rather than the raw URI, so they group per endpoint.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+    
+    private static final String REQUEST_ID_HEADER = "X-Request-Id";
+    private static final String REQUEST_ID_MDC = "requestId";
+    private static final String REQUEST_ID_ATTRIBUTE = RequestLoggingFilter.class.getName() + ".requestId";
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    
+    private static final Logger accessLog = LoggerFactory.getLogger("com.neurogine.taskapp.access");
+    
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    
+    public RequestLoggingFilter(@Value("${tasks.access-log.sample-rate:1.0}") double sampleRate,
+                                @Value("${tasks.access-log.slow-threshold:PT1S}") Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+    
+    // Async handlers (login, the event stream) finish on another dispatch, which needs the id too
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String requestId = (String) request.getAttribute(REQUEST_ID_ATTRIBUTE);
+        boolean initialDispatch = requestId == null;
+        if (initialDispatch) {
+            requestId = requestId(request);
+            request.setAttribute(REQUEST_ID_ATTRIBUTE, requestId);
+            response.setHeader(REQUEST_ID_HEADER, requestId);
+        }
+    
+        long start = System.nanoTime();
+        MDC.put(REQUEST_ID_MDC, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(REQUEST_ID_MDC);
+            if (initialDispatch) {
+                if (request.isAsyncStarted()) {
+                    String id = requestId;
+                    request.getAsyncContext().addListener(new AsyncListener() {
+                        @Override
+                        public void onComplete(AsyncEvent event) {
+                            log(request, response, id, System.nanoTime() - start);
+                        }
+    
+                        @Override
+                        public void onTimeout(AsyncEvent event) {
+                        }
+    
+                        @Override
+                        public void onError(AsyncEvent event) {
+                        }
+    
+                        @Override
+                        public void onStartAsync(AsyncEvent event) {
+                        }
+                    });
+                } else {
+                    log(request, response, requestId, System.nanoTime() - start);
+                }
+            }
+        }
+    }
+    
+    private void log(HttpServletRequest request, HttpServletResponse response, String requestId, long nanos) {
+        int status = response.getStatus();
+        if (status < 500 && nanos < slowThresholdNanos && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        MDC.put(REQUEST_ID_MDC, requestId);
+        try {
+            accessLog.info("{} {} {} {}", kv("method", request.getMethod()),
+                    kv("route", route != null ? route : "unmatched"), kv("status", status),
+                    kv("durationMs", nanos / 1_000_000));
+        } finally {
+            MDC.remove(REQUEST_ID_MDC);
+        }
+    }
+    
+    private static String requestId(HttpServletRequest request) {
+        String header = request.getHeader(REQUEST_ID_HEADER);
+        if (header != null && VALID_REQUEST_ID.matcher(header).matches()) {
+            return header;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
@@ -6,15 +6,17 @@ import com.neurogine.taskapp.dto.RegisterRequest;
 import com.neurogine.taskapp.model.User;
 import com.neurogine.taskapp.repository.UserRepository;
 import com.neurogine.taskapp.security.JwtUtil;
+import com.neurogine.taskapp.security.PasswordHasher;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -23,64 +25,76 @@ public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
-    private final AuthenticationManager authenticationManager;
+    private final AsyncTaskExecutor requestExecutor;
     
-    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder, 
-                         JwtUtil jwtUtil, AuthenticationManager authenticationManager) {
+    public AuthController(UserRepository userRepository, PasswordHasher passwordHasher, JwtUtil jwtUtil,
+                          @Qualifier("applicationTaskExecutor") AsyncTaskExecutor requestExecutor) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtUtil = jwtUtil;
-        this.authenticationManager = authenticationManager;
+        this.requestExecutor = requestExecutor;
     }
     
+    // Both endpoints return a future: the request thread is released while the password is
+    // hashed on PasswordHasher's pool. The database work that follows runs on the MVC async
+    // executor, so the hashing threads never wait on a connection
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest request) {
         logger.info("Registration attempt for username: {}", request.getUsername());
         
         if (userRepository.existsByUsername(request.getUsername())) {
             logger.warn("Registration failed: Username already exists - {}", request.getUsername());
-            return ResponseEntity.badRequest().body("Username already exists");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Username already exists"));
         }
         if (userRepository.existsByEmail(request.getEmail())) {
             logger.warn("Registration failed: Email already exists - {}", request.getEmail());
-            return ResponseEntity.badRequest().body("Email already exists");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Email already exists"));
         }
         
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        userRepository.save(user);
-        
-        logger.info("User registered successfully: {}", request.getUsername());
-        
-        String token = jwtUtil.generateToken(user.getUsername());
-        return ResponseEntity.ok(new AuthResponse(token, user.getUsername()));
+        return passwordHasher.encode(request.getPassword()).thenApplyAsync(hash -> {
+            User user = new User();
+            user.setUsername(request.getUsername());
+            user.setEmail(request.getEmail());
+            user.setPassword(hash);
+            try {
+                userRepository.save(user);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent registration took the username or email after the checks above
+                logger.warn("Registration failed: Username or email already exists - {}", request.getUsername());
+                return ResponseEntity.badRequest().body("Username or email already exists");
+            }
+            
+            logger.info("User registered successfully: {}", request.getUsername());
+            
+            String token = jwtUtil.generateToken(user.getUsername(), user.getId());
+            return ResponseEntity.ok(new AuthResponse(token, user.getUsername()));
+        }, requestExecutor);
     }
     
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request) {
         logger.info("Login attempt for username: {}", request.getUsername());
         
-        try {
-            authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-            );
-            
-            User user = userRepository.findByUsername(request.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            user.setLastLoginAt(LocalDateTime.now());
-            userRepository.save(user);
-            
-            logger.info("User logged in successfully: {}", request.getUsername());
-            
-            String token = jwtUtil.generateToken(request.getUsername());
-            return ResponseEntity.ok(new AuthResponse(token, request.getUsername()));
-        } catch (Exception e) {
-            logger.error("Login failed for username: {} - {}", request.getUsername(), e.getMessage());
-            return ResponseEntity.badRequest().body("Invalid credentials");
-        }
+        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        return passwordHasher.verify(request.getPassword(), user != null ? user.getPassword() : null)
+                .thenApplyAsync(hash -> {
+                    if (hash == null) {
+                        logger.error("Login failed for username: {} - Bad credentials", request.getUsername());
+                        return ResponseEntity.badRequest().body("Invalid credentials");
+                    }
+                    if (!hash.equals(user.getPassword())) {
+                        logger.info("Upgraded password hash for username: {}", request.getUsername());
+                        user.setPassword(hash);
+                    }
+                    user.setLastLoginAt(LocalDateTime.now());
+                    userRepository.save(user);
+                    
+                    logger.info("User logged in successfully: {}", request.getUsername());
+                    
+                    String token = jwtUtil.generateToken(user.getUsername(), user.getId());
+                    return ResponseEntity.ok(new AuthResponse(token, request.getUsername()));
+                }, requestExecutor);
     }
 }
@@ -4,10 +4,12 @@ import com.neurogine.taskapp.dto.UpdateProfileRequest;
 import com.neurogine.taskapp.dto.UserProfileResponse;
 import com.neurogine.taskapp.model.User;
 import com.neurogine.taskapp.repository.UserRepository;
+import com.neurogine.taskapp.security.AuthenticatedUser;
+import com.neurogine.taskapp.security.UserPrincipalCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -17,16 +19,18 @@ public class ProfileController {
     private static final Logger logger = LoggerFactory.getLogger(ProfileController.class);
     
     private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
     
-    public ProfileController(UserRepository userRepository) {
+    public ProfileController(UserRepository userRepository, UserPrincipalCache principalCache) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
     
     @GetMapping
-    public ResponseEntity<UserProfileResponse> getProfile(Authentication auth) {
-        logger.info("Get profile for user: {}", auth.getName());
+    public ResponseEntity<UserProfileResponse> getProfile(@AuthenticationPrincipal AuthenticatedUser principal) {
+        logger.debug("Get profile for user: {}", principal.getUsername());
         
-        User user = userRepository.findByUsername(auth.getName())
+        User user = userRepository.findById(principal.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         UserProfileResponse response = new UserProfileResponse();
@@ -43,11 +47,11 @@ public class ProfileController {
     @PutMapping
     public ResponseEntity<UserProfileResponse> updateProfile(
             @RequestBody UpdateProfileRequest request, 
-            Authentication auth) {
+            @AuthenticationPrincipal AuthenticatedUser principal) {
         
-        logger.info("Update profile for user: {}", auth.getName());
+        logger.info("Update profile for user: {}", principal.getUsername());
         
-        User user = userRepository.findByUsername(auth.getName())
+        User user = userRepository.findById(principal.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         if (request.getFirstName() != null) {
@@ -64,6 +68,7 @@ public class ProfileController {
         }
         
         userRepository.save(user);
+        principalCache.evict(user.getUsername());
         
         UserProfileResponse response = new UserProfileResponse();
         response.setId(user.getId());
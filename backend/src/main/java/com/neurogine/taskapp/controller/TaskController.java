@@ -1,20 +1,57 @@
 package com.neurogine.taskapp.controller;
 
+import com.neurogine.taskapp.dto.BulkCreateRequest;
+import com.neurogine.taskapp.dto.BulkIdsRequest;
+import com.neurogine.taskapp.dto.BulkUpdateRequest;
+import com.neurogine.taskapp.dto.ImportSummary;
+import com.neurogine.taskapp.dto.SyncToken;
+import com.neurogine.taskapp.dto.TagCount;
+import com.neurogine.taskapp.dto.TaskChanges;
+import com.neurogine.taskapp.dto.TaskCursor;
+import com.neurogine.taskapp.dto.TaskDueCounts;
+import com.neurogine.taskapp.dto.TaskFilter;
+import com.neurogine.taskapp.dto.TaskPage;
 import com.neurogine.taskapp.dto.TaskRequest;
+import com.neurogine.taskapp.dto.TaskSort;
 import com.neurogine.taskapp.dto.TaskStatistics;
+import com.neurogine.taskapp.dto.TaskSummary;
 import com.neurogine.taskapp.model.Task;
-import com.neurogine.taskapp.model.User;
+import com.neurogine.taskapp.model.TaskCounter;
+import com.neurogine.taskapp.model.TaskVersion;
 import com.neurogine.taskapp.repository.TaskRepository;
-import com.neurogine.taskapp.repository.UserRepository;
+import com.neurogine.taskapp.repository.TaskTagRepository;
+import com.neurogine.taskapp.security.AuthenticatedUser;
+import com.neurogine.taskapp.service.TaskCounterService;
+import com.neurogine.taskapp.service.TaskSearchService;
+import com.neurogine.taskapp.service.TaskStreamService;
+import com.neurogine.taskapp.service.TaskService;
+import com.neurogine.taskapp.service.TaskSyncService;
+import com.neurogine.taskapp.service.TaskTransferService;
+import com.neurogine.taskapp.service.TaskVersionService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -24,182 +61,307 @@ public class TaskController {
     private static final Logger logger = LoggerFactory.getLogger(TaskController.class);
     
     private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    private final TaskTagRepository taskTagRepository;
+    private final TaskService taskService;
+    private final TaskCounterService counterService;
+    private final TaskSearchService taskSearchService;
+    private final TaskTransferService taskTransferService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBulkSize;
+    private final TaskVersionService versionService;
+    private final Duration statisticsWindow;
+    private final TaskSyncService taskSyncService;
+    private final int maxSyncSize;
+    private final TaskStreamService taskStreamService;
     
-    public TaskController(TaskRepository taskRepository, UserRepository userRepository) {
+    public TaskController(TaskRepository taskRepository, TaskTagRepository taskTagRepository,
+                          TaskService taskService, TaskCounterService counterService,
+                          TaskSearchService taskSearchService, TaskTransferService taskTransferService,
+                          @Value("${tasks.page.default-size:50}") int defaultPageSize,
+                          @Value("${tasks.page.max-size:200}") int maxPageSize,
+                          @Value("${tasks.bulk.max-size:1000}") int maxBulkSize,
+                          TaskVersionService versionService,
+                          @Value("${tasks.etag.statistics-window:PT1M}") Duration statisticsWindow,
+                          TaskSyncService taskSyncService,
+                          @Value("${tasks.sync.max-size:1000}") int maxSyncSize,
+                          TaskStreamService taskStreamService) {
         this.taskRepository = taskRepository;
-        this.userRepository = userRepository;
+        this.taskTagRepository = taskTagRepository;
+        this.taskService = taskService;
+        this.counterService = counterService;
+        this.taskSearchService = taskSearchService;
+        this.taskTransferService = taskTransferService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBulkSize = maxBulkSize;
+        this.versionService = versionService;
+        this.statisticsWindow = statisticsWindow;
+        this.taskSyncService = taskSyncService;
+        this.maxSyncSize = maxSyncSize;
+        this.taskStreamService = taskStreamService;
     }
     
     @GetMapping
-    public ResponseEntity<List<Task>> getAllTasks(Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return ResponseEntity.ok(taskRepository.findByUserOrderByCreatedAtDesc(user));
+    public ResponseEntity<TaskPage> getAllTasks(@RequestParam(required = false) String tag,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size,
+                                                @AuthenticationPrincipal AuthenticatedUser principal,
+                                                WebRequest webRequest) {
+        if (notModified(webRequest, versionService.current(principal.getId()), 0)) {
+            return null;
+        }
+        TaskFilter filter = new TaskFilter();
+        filter.setTag(tag);
+        return revalidated(findPage(principal.getId(), filter, TaskSort.NEWEST, cursor, size));
     }
     
     @PostMapping
-    public ResponseEntity<Task> createTask(@Valid @RequestBody TaskRequest request, Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Task task = new Task();
-        task.setTitle(request.getTitle());
-        task.setDescription(request.getDescription());
-        task.setStatus(request.getStatus());
-        task.setPriority(request.getPriority());
-        task.setDueDate(request.getDueDate());
-        task.setCategory(request.getCategory());
-        task.setTags(request.getTags());
-        task.setUser(user);
-        
-        return ResponseEntity.ok(taskRepository.save(task));
+    public ResponseEntity<TaskSummary> createTask(@Valid @RequestBody TaskRequest request, 
+                                                  @AuthenticationPrincipal AuthenticatedUser principal) {
+        return ResponseEntity.ok(TaskSummary.of(taskService.create(request, principal)));
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<Task> updateTask(@PathVariable Long id, @Valid @RequestBody TaskRequest request, 
-                                          Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
-        
-        if (!task.getUser().getId().equals(user.getId())) {
-            return ResponseEntity.status(403).build();
-        }
-        
-        Task.TaskStatus oldStatus = task.getStatus();
-        
-        task.setTitle(request.getTitle());
-        task.setDescription(request.getDescription());
-        task.setStatus(request.getStatus());
-        task.setPriority(request.getPriority());
-        task.setDueDate(request.getDueDate());
-        task.setCategory(request.getCategory());
-        task.setTags(request.getTags());
-        
-        // Log when task is marked as completed
-        if (oldStatus != Task.TaskStatus.COMPLETED && request.getStatus() == Task.TaskStatus.COMPLETED) {
-            logger.info("Task #{} '{}' marked as COMPLETED by user '{}'", 
-                task.getId(), task.getTitle(), user.getUsername());
-        }
-        
-        return ResponseEntity.ok(taskRepository.save(task));
+    public ResponseEntity<TaskSummary> updateTask(@PathVariable Long id, @Valid @RequestBody TaskRequest request, 
+                                                  @AuthenticationPrincipal AuthenticatedUser principal) {
+        return ResponseEntity.ok(TaskSummary.of(taskService.update(id, request, principal)));
     }
     
     @PatchMapping("/{id}/complete")
-    public ResponseEntity<Task> markTaskComplete(@PathVariable Long id, Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
-        
-        if (!task.getUser().getId().equals(user.getId())) {
-            return ResponseEntity.status(403).build();
-        }
-        
-        if (task.getStatus() != Task.TaskStatus.COMPLETED) {
-            task.setStatus(Task.TaskStatus.COMPLETED);
-            logger.info("Task #{} '{}' marked as COMPLETED by user '{}' at {}", 
-                task.getId(), task.getTitle(), user.getUsername(), LocalDateTime.now());
-        }
-        
-        return ResponseEntity.ok(taskRepository.save(task));
+    public ResponseEntity<TaskSummary> markTaskComplete(@PathVariable Long id, 
+                                                        @AuthenticationPrincipal AuthenticatedUser principal) {
+        return ResponseEntity.ok(TaskSummary.of(taskService.markComplete(id, principal)));
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteTask(@PathVariable Long id, Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
-        
-        if (!task.getUser().getId().equals(user.getId())) {
-            return ResponseEntity.status(403).build();
-        }
-        
-        taskRepository.delete(task);
+    public ResponseEntity<?> deleteTask(@PathVariable Long id, 
+                                        @AuthenticationPrincipal AuthenticatedUser principal) {
+        taskService.delete(id, principal);
+        return ResponseEntity.ok().build();
+    }
+    
+    @PostMapping("/bulk/create")
+    public ResponseEntity<List<TaskSummary>> createTasks(@Valid @RequestBody BulkCreateRequest request,
+                                                         @AuthenticationPrincipal AuthenticatedUser principal) {
+        checkBulkSize(request.getTasks().size());
+        return ResponseEntity.ok(toSummaries(taskService.createAll(request.getTasks(), principal)));
+    }
+    
+    @PostMapping("/bulk/update")
+    public ResponseEntity<List<TaskSummary>> updateTasks(@Valid @RequestBody BulkUpdateRequest request,
+                                                         @AuthenticationPrincipal AuthenticatedUser principal) {
+        checkBulkSize(request.getTasks().size());
+        return ResponseEntity.ok(toSummaries(taskService.updateAll(request.getTasks(), principal)));
+    }
+    
+    @PostMapping("/bulk/complete")
+    public ResponseEntity<List<TaskSummary>> markTasksComplete(@Valid @RequestBody BulkIdsRequest request,
+                                                               @AuthenticationPrincipal AuthenticatedUser principal) {
+        checkBulkSize(request.getIds().size());
+        return ResponseEntity.ok(toSummaries(taskService.markAllComplete(request.getIds(), principal)));
+    }
+    
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<?> deleteTasks(@Valid @RequestBody BulkIdsRequest request,
+                                         @AuthenticationPrincipal AuthenticatedUser principal) {
+        checkBulkSize(request.getIds().size());
+        taskService.deleteAll(request.getIds(), principal);
         return ResponseEntity.ok().build();
     }
     
+    @GetMapping("/export")
+    public void exportTasks(@RequestParam(defaultValue = "ndjson") String format,
+                            @AuthenticationPrincipal AuthenticatedUser principal,
+                            HttpServletResponse response) throws IOException {
+        if ("csv".equalsIgnoreCase(format)) {
+            response.setContentType("text/csv;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks.csv\"");
+            taskTransferService.exportCsv(principal.getId(), response.getOutputStream());
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            response.setContentType("application/x-ndjson;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks.ndjson\"");
+            taskTransferService.exportNdjson(principal.getId(), response.getOutputStream());
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+    }
+    
+    @PostMapping("/import")
+    public ResponseEntity<ImportSummary> importTasks(InputStream body,
+                                                     @AuthenticationPrincipal AuthenticatedUser principal) 
+            throws IOException {
+        return ResponseEntity.ok(taskTransferService.importNdjson(body, principal));
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChanges> getChanges(@RequestParam(required = false) String since,
+                                                  @RequestParam(required = false) Integer size,
+                                                  @AuthenticationPrincipal AuthenticatedUser principal) {
+        SyncToken token = null;
+        if (since != null && !since.isBlank()) {
+            try {
+                token = SyncToken.decode(since);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+            }
+        }
+        int limit = size == null ? maxSyncSize : Math.max(1, Math.min(size, maxSyncSize));
+        return ResponseEntity.ok(taskSyncService.changesSince(principal.getId(), token, limit));
+    }
+    
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return taskStreamService.subscribe(principal.getId());
+    }
+    
     @GetMapping("/search")
-    public ResponseEntity<List<Task>> searchTasks(
-            @RequestParam(required = false) String query,
-            @RequestParam(required = false) String status,
-            @RequestParam(required = false) String priority,
-            @RequestParam(required = false) String category,
-            Authentication auth) {
-        
-        logger.info("Search tasks - user: {}, query: {}, status: {}, priority: {}, category: {}", 
-                    auth.getName(), query, status, priority, category);
-        
-        User user = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<TaskPage> searchTasks(TaskFilter filter,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size,
+                                                @AuthenticationPrincipal AuthenticatedUser principal) {
         
-        List<Task> tasks;
+        logger.debug("Search tasks - user: {}, filter: {}", principal.getUsername(), filter);
         
-        if (query != null && !query.isBlank()) {
-            tasks = taskRepository.searchTasks(user, query);
-        } else if (status != null) {
-            tasks = taskRepository.findByUserAndStatusOrderByCreatedAtDesc(user, Task.TaskStatus.valueOf(status));
-        } else if (priority != null) {
-            tasks = taskRepository.findByUserAndPriorityOrderByCreatedAtDesc(user, Task.TaskPriority.valueOf(priority));
-        } else if (category != null) {
-            tasks = taskRepository.findByUserAndCategoryOrderByCreatedAtDesc(user, category);
-        } else {
-            tasks = taskRepository.findByUserOrderByCreatedAtDesc(user);
+        // A bare text query is ranked by relevance; once other criteria are combined with it
+        // the single filtered query applies them all and orders by the requested sort
+        TaskSort sort = filter.getSort();
+        if (sort == null) {
+            sort = filter.hasQuery() && !filter.hasStructuredCriteria() ? TaskSort.RELEVANCE : TaskSort.NEWEST;
+        }
+        if (sort == TaskSort.RELEVANCE) {
+            if (!filter.hasQuery() || filter.hasStructuredCriteria()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                        "sort=RELEVANCE requires a query and no other filters");
+            }
+            return ResponseEntity.ok(taskSearchService.search(principal.getId(), filter.getQuery(), cursor, 
+                    resolvePageSize(size)));
         }
         
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(findPage(principal.getId(), filter, sort, cursor, size));
     }
     
     @GetMapping("/statistics")
-    public ResponseEntity<TaskStatistics> getStatistics(Authentication auth) {
-        logger.info("Get statistics for user: {}", auth.getName());
-        
-        User user = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        TaskStatistics stats = new TaskStatistics();
-        stats.setTotalTasks(taskRepository.count());
+    public ResponseEntity<TaskStatistics> getStatistics(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                        WebRequest webRequest) {
+        // The due-date counts move with the clock, so the validators also change every window
+        long windowMillis = statisticsWindow.toMillis();
+        long windowStart = System.currentTimeMillis() / windowMillis * windowMillis;
+        if (notModified(webRequest, versionService.current(principal.getId()), windowStart)) {
+            return null;
+        }
+        logger.debug("Get statistics for user: {}", principal.getUsername());
         
         Map<String, Long> byStatus = new HashMap<>();
         for (Task.TaskStatus status : Task.TaskStatus.values()) {
-            byStatus.put(status.name(), taskRepository.countByUserAndStatus(user, status));
+            byStatus.put(status.name(), 0L);
         }
-        stats.setByStatus(byStatus);
-        
         Map<String, Long> byPriority = new HashMap<>();
         for (Task.TaskPriority priority : Task.TaskPriority.values()) {
-            byPriority.put(priority.name(), taskRepository.countByUserAndPriority(user, priority));
+            byPriority.put(priority.name(), 0L);
+        }
+        
+        long total = 0;
+        for (TaskCounter counter : counterService.getCounters(principal.getId())) {
+            if (counter.getDimension() == TaskCounter.Dimension.STATUS) {
+                byStatus.put(counter.getBucket(), counter.getCount());
+                total += counter.getCount();
+            } else {
+                byPriority.put(counter.getBucket(), counter.getCount());
+            }
         }
-        stats.setByPriority(byPriority);
         
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime startOfToday = now.toLocalDate().atStartOfDay();
         LocalDateTime endOfToday = startOfToday.plusDays(1);
         LocalDateTime endOfWeek = startOfToday.plusWeeks(1);
         
-        stats.setTodayTasksCount((long) taskRepository.findByUserAndDueDateBetween(user, startOfToday, endOfToday).size());
-        stats.setWeekTasksCount((long) taskRepository.findByUserAndDueDateBetween(user, now, endOfWeek).size());
+        TaskDueCounts due = taskRepository.countDueByUserId(
+                principal.getId(), Task.TaskStatus.COMPLETED, now, startOfToday, endOfToday, endOfWeek);
         
-        List<Task> allTasks = taskRepository.findByUserOrderByCreatedAtDesc(user);
-        long overdueCount = allTasks.stream()
-                .filter(t -> t.getDueDate() != null && t.getDueDate().isBefore(now) && 
-                            t.getStatus() != Task.TaskStatus.COMPLETED)
-                .count();
-        stats.setOverdueTasksCount(overdueCount);
+        TaskStatistics stats = new TaskStatistics();
+        stats.setTotalTasks(total);
+        stats.setByStatus(byStatus);
+        stats.setByPriority(byPriority);
+        stats.setOverdueTasksCount(due.getOverdue());
+        stats.setTodayTasksCount(due.getDueToday());
+        stats.setWeekTasksCount(due.getDueThisWeek());
         
-        return ResponseEntity.ok(stats);
+        return revalidated(stats);
     }
     
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getCategories(Authentication auth) {
-        User user = userRepository.findByUsername(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return ResponseEntity.ok(taskRepository.findDistinctCategoriesByUser(user));
+    public ResponseEntity<List<String>> getCategories(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                      WebRequest webRequest) {
+        if (notModified(webRequest, versionService.current(principal.getId()), 0)) {
+            return null;
+        }
+        return revalidated(taskRepository.findDistinctCategoriesByUserId(principal.getId()));
+    }
+    
+    @GetMapping("/tags")
+    public ResponseEntity<List<TagCount>> getTagCloud(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                      WebRequest webRequest) {
+        if (notModified(webRequest, versionService.current(principal.getId()), 0)) {
+            return null;
+        }
+        return revalidated(taskTagRepository.countByUserId(principal.getId()));
+    }
+    
+    /**
+     * Compares the request's If-None-Match / If-Modified-Since with the user's task list
+     * version and, on a match, turns the response into a 304. The version is read before
+     * any task query, so a write racing with the request can only make the ETag older than
+     * the body, never newer. Views that also change with time pass the start of the current
+     * time window (epoch millis), or 0.
+     */
+    private boolean notModified(WebRequest webRequest, TaskVersion version, long windowStart) {
+        String etag = "\"" + version.getUserId() + "-" + version.getVersion() 
+                + (windowStart > 0 ? "-" + windowStart : "") + "\"";
+        long lastModified = version.getModifiedAt() == null ? -1 
+                : version.getModifiedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return webRequest.checkNotModified(etag, windowStart > 0 ? Math.max(lastModified, windowStart) : lastModified);
+    }
+    
+    // no-cache lets the browser keep the body and revalidate it with the ETag on every use
+    private <T> ResponseEntity<T> revalidated(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(body);
+    }
+    
+    private TaskPage findPage(Long userId, TaskFilter filter, TaskSort sort, String cursor, Integer size) {
+        TaskCursor after;
+        try {
+            after = TaskCursor.decode(cursor, sort);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        if (filter.getTag() != null) {
+            filter.setTag(normalizeTag(filter.getTag()));
+        }
+        int pageSize = resolvePageSize(size);
+        List<TaskSummary> rows = taskRepository.findPage(userId, filter, sort, after, pageSize + 1);
+        return TaskPage.of(rows, pageSize, sort);
+    }
+    
+    private void checkBulkSize(int size) {
+        if (size > maxBulkSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                    "At most " + maxBulkSize + " tasks per bulk request");
+        }
+    }
+    
+    private List<TaskSummary> toSummaries(List<Task> tasks) {
+        return tasks.stream().map(TaskSummary::of).toList();
+    }
+    
+    private String normalizeTag(String tag) {
+        return tag.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(size, maxPageSize));
     }
 }
@@ -0,0 +1,12 @@
+package com.neurogine.taskapp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkIdsRequest {
+    @NotEmpty(message = "At least one task id is required")
+    private List<@NotNull Long> ids;
+}
@@ -0,0 +1,12 @@
+package com.neurogine.taskapp.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkUpdateRequest {
+    @NotEmpty(message = "At least one task is required")
+    private List<@Valid TaskUpdateRequest> tasks;
+}
@@ -0,0 +1,22 @@
+package com.neurogine.taskapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportSummary {
+    private long imported;
+    private long failed;
+    private List<LineError> errors = new ArrayList<>();
+    
+    @Data
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
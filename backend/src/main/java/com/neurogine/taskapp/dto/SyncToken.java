@@ -0,0 +1,37 @@
+package com.neurogine.taskapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque delta-sync position: the user's task list version the client is current up to,
+ * the last task id already sent at that version (Long.MAX_VALUE once it is complete) and
+ * when the token was issued, which decides whether tombstones still cover it.
+ */
+@Getter
+@AllArgsConstructor
+public class SyncToken {
+    
+    private final long version;
+    private final long afterId;
+    private final long issuedAtMillis;
+    
+    public String encode() {
+        String raw = version + "|" + afterId + "|" + issuedAtMillis;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static SyncToken decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed sync token");
+        }
+        return new SyncToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    }
+}
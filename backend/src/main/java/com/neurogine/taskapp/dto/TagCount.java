@@ -0,0 +1,11 @@
+package com.neurogine.taskapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TagCount {
+    private String tag;
+    private Long count;
+}
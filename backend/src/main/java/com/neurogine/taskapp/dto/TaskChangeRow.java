@@ -0,0 +1,23 @@
+package com.neurogine.taskapp.dto;
+
+import com.neurogine.taskapp.model.Task;
+import lombok.Getter;
+import java.time.LocalDateTime;
+
+/**
+ * A changed task as delta sync reads it: the summary sent to the client and the version of
+ * the write that last touched it, which positions the next sync token.
+ */
+@Getter
+public class TaskChangeRow {
+    private final TaskSummary task;
+    private final long syncVersion;
+    
+    public TaskChangeRow(Long id, String title, String description, Task.TaskStatus status,
+                         Task.TaskPriority priority, LocalDateTime dueDate, String category, String tags,
+                         LocalDateTime createdAt, LocalDateTime updatedAt, long syncVersion) {
+        this.task = new TaskSummary(id, title, description, status, priority, dueDate, category, tags,
+                createdAt, updatedAt);
+        this.syncVersion = syncVersion;
+    }
+}
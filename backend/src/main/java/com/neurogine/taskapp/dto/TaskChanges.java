@@ -0,0 +1,14 @@
+package com.neurogine.taskapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TaskChanges {
+    private List<TaskSummary> changed;
+    private List<Long> deleted;
+    private String token;
+    private boolean hasMore;
+}
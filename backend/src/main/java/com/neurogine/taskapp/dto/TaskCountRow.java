@@ -0,0 +1,16 @@
+package com.neurogine.taskapp.dto;
+
+import com.neurogine.taskapp.model.Task;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Number of a user's tasks in one (status, priority) group.
+ */
+@Data
+@AllArgsConstructor
+public class TaskCountRow {
+    private Task.TaskStatus status;
+    private Task.TaskPriority priority;
+    private Long total;
+}
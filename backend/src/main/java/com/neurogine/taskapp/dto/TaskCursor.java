@@ -0,0 +1,43 @@
+package com.neurogine.taskapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the sort it belongs to, the last row's sort key (null for a
+ * task without a due date) and its id. The client only echoes back the encoded form it
+ * received as nextCursor.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskCursor {
+    
+    private final TaskSort sort;
+    private final LocalDateTime key;
+    private final Long id;
+    
+    public String encode() {
+        String raw = sort + "|" + (key == null ? "" : key) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @return the decoded cursor, or null when none was given (first page)
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort
+     */
+    public static TaskCursor decode(String cursor, TaskSort expectedSort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|", -1);
+        if (parts.length != 3 || !parts[0].equals(expectedSort.name())) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        LocalDateTime key = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]);
+        return new TaskCursor(expectedSort, key, Long.parseLong(parts[2]));
+    }
+}
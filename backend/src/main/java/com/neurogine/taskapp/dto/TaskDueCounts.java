@@ -0,0 +1,12 @@
+package com.neurogine.taskapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TaskDueCounts {
+    private Long overdue;
+    private Long dueToday;
+    private Long dueThisWeek;
+}
@@ -0,0 +1,36 @@
+package com.neurogine.taskapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.neurogine.taskapp.model.Task;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A committed task write, published by TaskService and pushed to the owner's
+ * /api/tasks/stream subscribers. The type becomes the SSE event name and the rest its
+ * JSON data, shaped like a TaskChanges page.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskEvent {
+    
+    public enum Type { CREATED, UPDATED, COMPLETED, DELETED }
+    
+    @JsonIgnore
+    private final Long userId;
+    @JsonIgnore
+    private final Type type;
+    private final long version;
+    private final List<TaskSummary> changed;
+    private final List<Long> deleted;
+    
+    public static TaskEvent changed(Long userId, Type type, long version, Collection<Task> tasks) {
+        return new TaskEvent(userId, type, version, tasks.stream().map(TaskSummary::of).toList(), List.of());
+    }
+    
+    public static TaskEvent deleted(Long userId, long version, Collection<Long> ids) {
+        return new TaskEvent(userId, Type.DELETED, version, List.of(), List.copyOf(ids));
+    }
+}
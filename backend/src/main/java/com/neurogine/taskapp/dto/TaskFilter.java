@@ -0,0 +1,47 @@
+package com.neurogine.taskapp.dto;
+
+import com.neurogine.taskapp.model.Task;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Query-string criteria for task listing. Every non-null field narrows the result and all
+ * of them are ANDed together; status and priority accept several values (OR within the set).
+ */
+@Data
+public class TaskFilter {
+    private String query;
+    
+    private List<Task.TaskStatus> status;
+    
+    private List<Task.TaskPriority> priority;
+    
+    private String category;
+    
+    private String tag;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueTo;
+    
+    private Boolean overdue;
+    
+    private TaskSort sort;
+    
+    public boolean hasQuery() {
+        return query != null && !query.isBlank();
+    }
+    
+    /**
+     * True when anything other than the free-text query narrows the result.
+     */
+    public boolean hasStructuredCriteria() {
+        return (status != null && !status.isEmpty()) || (priority != null && !priority.isEmpty())
+                || category != null || (tag != null && !tag.isBlank())
+                || dueFrom != null || dueTo != null || overdue != null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.neurogine.taskapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TaskPage {
+    private List<TaskSummary> items;
+    private String nextCursor;
+    
+    /**
+     * Builds a page from a query that fetched one row more than {@code size}; the extra
+     * row only signals that another page exists.
+     */
+    public static TaskPage of(List<TaskSummary> rows, int size, TaskSort sort) {
+        if (rows.size() <= size) {
+            return new TaskPage(rows, null);
+        }
+        List<TaskSummary> items = rows.subList(0, size);
+        TaskSummary last = items.get(size - 1);
+        return new TaskPage(items, new TaskCursor(sort, sort.keyOf(last), last.getId()).encode());
+    }
+}
@@ -0,0 +1,18 @@
+package com.neurogine.taskapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Orderings supported by the task list. Every ordering ends on id so keyset cursors are
+ * unambiguous; RELEVANCE is only served by the ranked text search.
+ */
+public enum TaskSort {
+    NEWEST,
+    OLDEST,
+    DUE_DATE,
+    RELEVANCE;
+    
+    public LocalDateTime keyOf(TaskSummary task) {
+        return this == DUE_DATE ? task.getDueDate() : task.getCreatedAt();
+    }
+}
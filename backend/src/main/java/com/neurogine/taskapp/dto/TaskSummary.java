@@ -0,0 +1,29 @@
+package com.neurogine.taskapp.dto;
+
+import com.neurogine.taskapp.model.Task;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSummary {
+    private Long id;
+    private String title;
+    private String description;
+    private Task.TaskStatus status;
+    private Task.TaskPriority priority;
+    private LocalDateTime dueDate;
+    private String category;
+    private String tags;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    public static TaskSummary of(Task task) {
+        return new TaskSummary(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(),
+                task.getPriority(), task.getDueDate(), task.getCategory(), task.getTags(),
+                task.getCreatedAt(), task.getUpdatedAt());
+    }
+}
@@ -0,0 +1,12 @@
+package com.neurogine.taskapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class TaskUpdateRequest extends TaskRequest {
+    @NotNull(message = "Task id is required")
+    private Long id;
+}
@@ -1,15 +1,26 @@
 package com.neurogine.taskapp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
+// Indexes are declared in the Flyway migrations (db/migration), not here
 @Table(name = "tasks")
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task")
 public class Task {
+    // Pooled sequence ids let Hibernate assign ids without a round trip per insert, so
+    // inserts can be JDBC-batched; V1__baseline moves the sequence past pre-existing ids
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_id_seq")
+    @SequenceGenerator(name = "task_id_seq", sequenceName = "task_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -34,7 +45,11 @@ public class Task {
     @Column(length = 500)
     private String tags; // Comma-separated tags
 
-    @ManyToOne
+    // Only the owner's id is ever needed, and a lazy proxy answers getId() from the foreign key
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -44,6 +59,11 @@ public class Task {
     @Column(nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // The owner's TaskVersion at the last write; GET /api/tasks/changes reads past it
+    @JsonIgnore
+    @Column(name = "sync_version", nullable = false, columnDefinition = "bigint default 0")
+    private long syncVersion;
+
     @PreUpdate
     public void preUpdate() {
         updatedAt = LocalDateTime.now();
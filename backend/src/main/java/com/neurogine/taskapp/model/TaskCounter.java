@@ -0,0 +1,50 @@
+package com.neurogine.taskapp.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+
+/**
+ * Per-user running count of tasks in one status or priority bucket, kept in step with
+ * task writes so statistics do not have to scan the tasks table.
+ */
+@Entity
+@Table(name = "task_counters")
+@IdClass(TaskCounter.Key.class)
+@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "taskCounter")
+public class TaskCounter {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Dimension dimension;
+
+    @Id
+    @Column(length = 20)
+    private String bucket;
+
+    @Column(name = "task_count", nullable = false)
+    private long count;
+
+    public enum Dimension {
+        STATUS, PRIORITY
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Dimension dimension;
+        private String bucket;
+    }
+}
@@ -0,0 +1,36 @@
+package com.neurogine.taskapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+
+/**
+ * One normalized tag of a task. Derived from Task.tags on every write; the owner's id is
+ * copied in so tag filters and the tag cloud are answered from the (user_id, tag) index.
+ */
+@Entity
+@Table(name = "task_tags")
+@IdClass(TaskTag.Key.class)
+@Data
+public class TaskTag {
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Id
+    @Column(length = 50)
+    private String tag;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long taskId;
+        private String tag;
+    }
+}
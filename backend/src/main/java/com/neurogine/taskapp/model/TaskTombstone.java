@@ -0,0 +1,27 @@
+package com.neurogine.taskapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Marker left behind by a deleted task so delta sync can tell clients to drop it.
+ * Purged after tasks.sync.tombstone-retention.
+ */
+@Entity
+@Table(name = "task_tombstones")
+@Data
+public class TaskTombstone {
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
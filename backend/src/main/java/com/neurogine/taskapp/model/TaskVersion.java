@@ -0,0 +1,31 @@
+package com.neurogine.taskapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user version of the task list, bumped in the same transaction as every task write.
+ * Read endpoints derive their ETag and Last-Modified from it so an unchanged list can be
+ * answered with 304 without querying tasks.
+ */
+@Entity
+@Table(name = "task_versions")
+@Data
+@NoArgsConstructor
+public class TaskVersion {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "modified_at")
+    private LocalDateTime modifiedAt;
+
+    public TaskVersion(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,51 @@
+package com.neurogine.taskapp.repository;
+
+import com.neurogine.taskapp.model.TaskCounter;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+
+public interface TaskCounterRepository extends JpaRepository<TaskCounter, TaskCounter.Key> {
+    // Statistics read these on every request; any counter write invalidates the cached result
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<TaskCounter> findByUserId(Long userId);
+    
+    // Straight from the table, for reconciliation
+    @Query("SELECT c FROM TaskCounter c WHERE c.userId = :userId")
+    List<TaskCounter> findCurrentByUserId(@Param("userId") Long userId);
+    
+    // Counter rows never depend on pending entity changes, so skip the automatic flush
+    // Hibernate would otherwise run (and dirty-check the whole session for) before native SQL.
+    // Naming the table also limits cache invalidation to it; without a query space Hibernate
+    // assumes native SQL changed every table and empties the whole second-level cache
+    @Modifying
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "COMMIT"),
+        @QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "task_counters")
+    })
+    @Query(value = "INSERT INTO task_counters (user_id, dimension, bucket, task_count) " +
+                   "VALUES (:userId, :dimension, :bucket, :delta) " +
+                   "ON CONFLICT (user_id, dimension, bucket) " +
+                   "DO UPDATE SET task_count = task_counters.task_count + EXCLUDED.task_count",
+           nativeQuery = true)
+    void increment(@Param("userId") Long userId, @Param("dimension") String dimension,
+                   @Param("bucket") String bucket, @Param("delta") long delta);
+    
+    @Modifying
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "COMMIT"),
+        @QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "task_counters")
+    })
+    @Query(value = "INSERT INTO task_counters (user_id, dimension, bucket, task_count) " +
+                   "VALUES (:userId, :dimension, :bucket, :count) " +
+                   "ON CONFLICT (user_id, dimension, bucket) " +
+                   "DO UPDATE SET task_count = EXCLUDED.task_count",
+           nativeQuery = true)
+    void setCount(@Param("userId") Long userId, @Param("dimension") String dimension,
+                  @Param("bucket") String bucket, @Param("count") long count);
+}
@@ -0,0 +1,16 @@
+package com.neurogine.taskapp.repository;
+
+import com.neurogine.taskapp.dto.TaskCursor;
+import com.neurogine.taskapp.dto.TaskFilter;
+import com.neurogine.taskapp.dto.TaskSort;
+import com.neurogine.taskapp.dto.TaskSummary;
+import java.util.List;
+
+public interface TaskFilterRepository {
+    
+    /**
+     * Returns up to {@code limit} summaries of the user's tasks matching every criterion in
+     * the filter, ordered by {@code sort} and starting after {@code after} (null for the first page).
+     */
+    List<TaskSummary> findPage(Long userId, TaskFilter filter, TaskSort sort, TaskCursor after, int limit);
+}
@@ -0,0 +1,126 @@
+package com.neurogine.taskapp.repository;
+
+import com.neurogine.taskapp.dto.TaskCursor;
+import com.neurogine.taskapp.dto.TaskFilter;
+import com.neurogine.taskapp.dto.TaskSort;
+import com.neurogine.taskapp.dto.TaskSummary;
+import com.neurogine.taskapp.model.Task;
+import com.neurogine.taskapp.model.TaskTag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the filtered task list as one Criteria query: all criteria are ANDed into a single
+ * WHERE clause, the keyset predicate follows the requested sort and only the TaskSummary
+ * columns are selected.
+ */
+public class TaskFilterRepositoryImpl implements TaskFilterRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<TaskSummary> findPage(Long userId, TaskFilter filter, TaskSort sort, TaskCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskSummary> cq = cb.createQuery(TaskSummary.class);
+        Root<Task> t = cq.from(Task.class);
+        
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(t.get("user").get("id"), userId));
+        
+        String tsQuery = null;
+        ParameterExpression<String> textQuery = cb.parameter(String.class);
+        if (filter.hasQuery()) {
+            tsQuery = TsQuery.prefixQuery(filter.getQuery());
+            if (tsQuery.isEmpty()) {
+                return List.of();
+            }
+            where.add(cb.isTrue(cb.function(TaskSqlFunctions.TEXT_MATCH, Boolean.class, t.get("id"), textQuery)));
+        }
+        if (filter.getStatus() != null && !filter.getStatus().isEmpty()) {
+            where.add(t.get("status").in(filter.getStatus()));
+        }
+        if (filter.getPriority() != null && !filter.getPriority().isEmpty()) {
+            where.add(t.get("priority").in(filter.getPriority()));
+        }
+        if (filter.getCategory() != null) {
+            where.add(cb.equal(t.get("category"), filter.getCategory()));
+        }
+        if (filter.getTag() != null && !filter.getTag().isBlank()) {
+            Subquery<Integer> tagged = cq.subquery(Integer.class);
+            Root<TaskTag> tt = tagged.from(TaskTag.class);
+            tagged.select(cb.literal(1)).where(
+                    cb.equal(tt.get("userId"), userId),
+                    cb.equal(tt.get("tag"), filter.getTag()),
+                    cb.equal(tt.get("taskId"), t.get("id")));
+            where.add(cb.exists(tagged));
+        }
+        
+        Path<LocalDateTime> dueDate = t.get("dueDate");
+        if (filter.getDueFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(dueDate, filter.getDueFrom()));
+        }
+        if (filter.getDueTo() != null) {
+            where.add(cb.lessThan(dueDate, filter.getDueTo()));
+        }
+        if (filter.getOverdue() != null) {
+            Predicate overdue = cb.and(
+                    cb.lessThan(dueDate, LocalDateTime.now()),
+                    cb.notEqual(t.get("status"), Task.TaskStatus.COMPLETED));
+            where.add(filter.getOverdue() ? overdue : cb.or(cb.isNull(dueDate), cb.not(overdue)));
+        }
+        
+        Path<Long> id = t.get("id");
+        Path<LocalDateTime> key = sort == TaskSort.DUE_DATE ? dueDate : t.get("createdAt");
+        if (after != null) {
+            where.add(afterCursor(cb, key, id, sort, after));
+        }
+        
+        // Postgres sorts nulls last in ascending order, so undated tasks end the DUE_DATE list
+        // without a NULLS LAST clause, matching what the cursor predicate expects
+        if (sort == TaskSort.NEWEST) {
+            cq.orderBy(cb.desc(key), cb.desc(id));
+        } else {
+            cq.orderBy(cb.asc(key), cb.asc(id));
+        }
+        
+        cq.select(cb.construct(TaskSummary.class,
+                        t.get("id"), t.get("title"), t.get("description"), t.get("status"), t.get("priority"),
+                        dueDate, t.get("category"), t.get("tags"), t.get("createdAt"), t.get("updatedAt")))
+                .where(where.toArray(new Predicate[0]));
+        
+        TypedQuery<TaskSummary> query = entityManager.createQuery(cq).setMaxResults(limit);
+        if (tsQuery != null) {
+            query.setParameter(textQuery, tsQuery);
+        }
+        return query.getResultList();
+    }
+    
+    private Predicate afterCursor(CriteriaBuilder cb, Path<LocalDateTime> key, Path<Long> id,
+                                  TaskSort sort, TaskCursor after) {
+        // The redundant <= / >= bound on the key gives Postgres an index range to start from;
+        // the OR alone is only a filter and deep pages would rescan everything before them
+        if (sort == TaskSort.NEWEST) {
+            return cb.and(cb.lessThanOrEqualTo(key, after.getKey()),
+                    cb.or(cb.lessThan(key, after.getKey()), cb.lessThan(id, after.getId())));
+        }
+        if (sort == TaskSort.DUE_DATE && after.getKey() == null) {
+            // already in the trailing run of undated tasks
+            return cb.and(cb.isNull(key), cb.greaterThan(id, after.getId()));
+        }
+        Predicate later = cb.and(cb.greaterThanOrEqualTo(key, after.getKey()),
+                cb.or(cb.greaterThan(key, after.getKey()), cb.greaterThan(id, after.getId())));
+        return sort == TaskSort.DUE_DATE ? cb.or(later, cb.isNull(key)) : later;
+    }
+}
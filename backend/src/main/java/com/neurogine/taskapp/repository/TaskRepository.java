@@ -1,38 +1,92 @@
 package com.neurogine.taskapp.repository;
 
+import com.neurogine.taskapp.dto.TaskChangeRow;
+import com.neurogine.taskapp.dto.TaskCountRow;
+import com.neurogine.taskapp.dto.TaskDueCounts;
+import com.neurogine.taskapp.dto.TaskSummary;
 import com.neurogine.taskapp.model.Task;
-import com.neurogine.taskapp.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findByUserOrderByCreatedAtDesc(User user);
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskFilterRepository {
     
-    List<Task> findByUserAndStatusOrderByCreatedAtDesc(User user, Task.TaskStatus status);
+    // Ownership-scoped access: another user's task is simply not found, and the check costs
+    // no extra query or load of the owner
     
-    List<Task> findByUserAndPriorityOrderByCreatedAtDesc(User user, Task.TaskPriority priority);
+    Optional<Task> findByIdAndUserId(Long id, Long userId);
     
-    List<Task> findByUserAndCategoryOrderByCreatedAtDesc(User user, String category);
+    List<Task> findAllByIdInAndUserId(Collection<Long> ids, Long userId);
     
-    @Query("SELECT t FROM Task t WHERE t.user = :user AND " +
-           "(LOWER(t.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(t.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(t.tags) LIKE LOWER(CONCAT('%', :search, '%'))) " +
-           "ORDER BY t.createdAt DESC")
-    List<Task> searchTasks(@Param("user") User user, @Param("search") String search);
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id = :id AND t.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
     
-    @Query("SELECT COUNT(t) FROM Task t WHERE t.user = :user AND t.status = :status")
-    Long countByUserAndStatus(@Param("user") User user, @Param("status") Task.TaskStatus status);
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id IN :ids AND t.user.id = :userId")
+    int deleteByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
     
-    @Query("SELECT COUNT(t) FROM Task t WHERE t.user = :user AND t.priority = :priority")
-    Long countByUserAndPriority(@Param("user") User user, @Param("priority") Task.TaskPriority priority);
+    // Bulk statements skip @PreUpdate, so updatedAt is passed in; they also leave the
+    // persistence context stale, hence clearAutomatically
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Task t SET t.status = :status, t.syncVersion = :version, t.updatedAt = :now " +
+           "WHERE t.id IN :ids AND t.user.id = :userId")
+    int updateStatusByIdInAndUserId(@Param("ids") Collection<Long> ids, @Param("userId") Long userId,
+                                    @Param("status") Task.TaskStatus status, @Param("version") long version,
+                                    @Param("now") LocalDateTime now);
     
-    @Query("SELECT t FROM Task t WHERE t.user = :user AND t.dueDate BETWEEN :start AND :end ORDER BY t.dueDate ASC")
-    List<Task> findByUserAndDueDateBetween(@Param("user") User user, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    // Only while the task still has the status the caller read, so counters move from the right bucket
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Task t SET t.status = :status, t.syncVersion = :version, t.updatedAt = :now " +
+           "WHERE t.id = :id AND t.user.id = :userId AND t.status = :expected")
+    int updateStatusByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId,
+                                  @Param("expected") Task.TaskStatus expected, @Param("status") Task.TaskStatus status,
+                                  @Param("version") long version, @Param("now") LocalDateTime now);
     
-    @Query("SELECT DISTINCT t.category FROM Task t WHERE t.user = :user AND t.category IS NOT NULL")
-    List<String> findDistinctCategoriesByUser(@Param("user") User user);
+    // One export page after a task id; projections, so the rows are never held by the
+    // persistence context
+    @Query("SELECT new com.neurogine.taskapp.dto.TaskSummary(t.id, t.title, t.description, t.status, t.priority, " +
+           "t.dueDate, t.category, t.tags, t.createdAt, t.updatedAt) FROM Task t " +
+           "WHERE t.user.id = :userId AND t.id > :afterId ORDER BY t.id")
+    List<TaskSummary> findExportPage(@Param("userId") Long userId, @Param("afterId") long afterId, Pageable pageable);
+    
+    // Tasks written after a sync position, in the order those writes committed; each row carries
+    // its version so the next position comes from this same statement
+    @Query("SELECT new com.neurogine.taskapp.dto.TaskChangeRow(t.id, t.title, t.description, t.status, t.priority, " +
+           "t.dueDate, t.category, t.tags, t.createdAt, t.updatedAt, t.syncVersion) FROM Task t " +
+           "WHERE t.user.id = :userId AND t.syncVersion >= :version AND (t.syncVersion > :version OR t.id > :afterId) " +
+           "ORDER BY t.syncVersion, t.id")
+    List<TaskChangeRow> findChangedSince(@Param("userId") Long userId, @Param("version") long version,
+                                         @Param("afterId") long afterId, Pageable pageable);
+    
+    @Query("SELECT new com.neurogine.taskapp.dto.TaskCountRow(t.status, t.priority, COUNT(t)) " +
+           "FROM Task t WHERE t.user.id = :userId GROUP BY t.status, t.priority")
+    List<TaskCountRow> countByUserIdGrouped(@Param("userId") Long userId);
+    
+    // Due-date buckets depend on the clock, so they cannot be kept as counters; this only
+    // reads tasks due up to the end of the week through the (user_id, due_date) index
+    @Query("SELECT new com.neurogine.taskapp.dto.TaskDueCounts(" +
+           "COALESCE(SUM(CASE WHEN t.dueDate < :now AND t.status <> :completed THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN t.dueDate BETWEEN :startOfToday AND :endOfToday THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN t.dueDate BETWEEN :now AND :endOfWeek THEN 1 ELSE 0 END), 0)) " +
+           "FROM Task t WHERE t.user.id = :userId AND t.dueDate <= :endOfWeek")
+    TaskDueCounts countDueByUserId(@Param("userId") Long userId, @Param("completed") Task.TaskStatus completed,
+                                   @Param("now") LocalDateTime now,
+                                   @Param("startOfToday") LocalDateTime startOfToday,
+                                   @Param("endOfToday") LocalDateTime endOfToday,
+                                   @Param("endOfWeek") LocalDateTime endOfWeek);
+    
+    // Cached until the next write to tasks by any user
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT DISTINCT t.category FROM Task t WHERE t.user.id = :userId AND t.category IS NOT NULL")
+    List<String> findDistinctCategoriesByUserId(@Param("userId") Long userId);
 }
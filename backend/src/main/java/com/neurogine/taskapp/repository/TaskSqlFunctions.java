@@ -0,0 +1,56 @@
+package com.neurogine.taskapp.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.ReturnableType;
+import org.hibernate.query.sqm.function.AbstractSqmSelfRenderingFunctionDescriptor;
+import org.hibernate.query.sqm.produce.function.StandardArgumentsValidators;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
+import org.hibernate.sql.ast.tree.expression.Expression;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+import java.util.List;
+
+/**
+ * Registers SQL the Criteria API cannot express. search_vector is a generated tsvector column
+ * that is deliberately not mapped on Task, so {@code task_text_match(t.id, :query)} takes the
+ * task's id and matches the search_vector of that same row, found through the id column's
+ * table alias. The match is one more predicate on the user's rows: Postgres either filters them
+ * or intersects them with the GIN index, and the cost follows the user's tasks rather than
+ * every user's matches. Loaded through META-INF/services.
+ */
+public class TaskSqlFunctions implements FunctionContributor {
+    
+    public static final String TEXT_MATCH = "task_text_match";
+    
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.BOOLEAN);
+        functionContributions.getFunctionRegistry().register(TEXT_MATCH, new TextMatchFunction(booleanType));
+    }
+    
+    private static class TextMatchFunction extends AbstractSqmSelfRenderingFunctionDescriptor {
+        
+        TextMatchFunction(BasicType<Boolean> booleanType) {
+            super(TEXT_MATCH, StandardArgumentsValidators.exactly(2),
+                    StandardFunctionReturnTypeResolvers.invariant(booleanType), null);
+        }
+        
+        @Override
+        public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> arguments,
+                           ReturnableType<?> returnType, SqlAstTranslator<?> walker) {
+            ColumnReference id = ((Expression) arguments.get(0)).getColumnReference();
+            if (id == null || id.getQualifier() == null) {
+                throw new IllegalArgumentException(TEXT_MATCH + " takes the id column of a tasks row");
+            }
+            sqlAppender.appendSql("(" + id.getQualifier() + ".search_vector @@ to_tsquery('simple', ");
+            arguments.get(1).accept(walker);
+            sqlAppender.appendSql("))");
+        }
+    }
+}
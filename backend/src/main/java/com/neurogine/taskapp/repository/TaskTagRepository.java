@@ -0,0 +1,36 @@
+package com.neurogine.taskapp.repository;
+
+import com.neurogine.taskapp.dto.TagCount;
+import com.neurogine.taskapp.model.TaskTag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
+
+public interface TaskTagRepository extends JpaRepository<TaskTag, TaskTag.Key> {
+    
+    // Native writes must name their table, or Hibernate empties the whole second-level cache
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "task_tags"))
+    @Query(value = "INSERT INTO task_tags (task_id, tag, user_id) VALUES (:taskId, :tag, :userId) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    void insert(@Param("taskId") Long taskId, @Param("tag") String tag, @Param("userId") Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM TaskTag t WHERE t.taskId = :taskId")
+    void deleteByTaskId(@Param("taskId") Long taskId);
+    
+    @Modifying
+    @Query("DELETE FROM TaskTag t WHERE t.taskId IN :taskIds")
+    void deleteByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+    
+    @Query("SELECT new com.neurogine.taskapp.dto.TagCount(t.tag, COUNT(t)) FROM TaskTag t " +
+           "WHERE t.userId = :userId GROUP BY t.tag ORDER BY COUNT(t) DESC, t.tag")
+    List<TagCount> countByUserId(@Param("userId") Long userId);
+}
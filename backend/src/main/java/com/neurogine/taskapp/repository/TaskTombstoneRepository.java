@@ -0,0 +1,25 @@
+package com.neurogine.taskapp.repository;
+
+import com.neurogine.taskapp.model.TaskTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+    
+    // Same position and order as TaskRepository.findChangedSince, so both page under one token
+    @Query("SELECT t FROM TaskTombstone t WHERE t.userId = :userId AND t.version >= :version " +
+           "AND (t.version > :version OR t.taskId > :afterId) ORDER BY t.version, t.taskId")
+    List<TaskTombstone> findDeletedSince(@Param("userId") Long userId, @Param("version") long version,
+                                         @Param("afterId") long afterId, Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TaskTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,33 @@
+package com.neurogine.taskapp.repository;
+
+import com.neurogine.taskapp.model.TaskVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+
+public interface TaskVersionRepository extends JpaRepository<TaskVersion, Long> {
+    
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(value = "INSERT INTO task_versions (user_id, version, modified_at) VALUES (:userId, 1, :now) " +
+                   "ON CONFLICT (user_id) " +
+                   "DO UPDATE SET version = task_versions.version + 1, modified_at = EXCLUDED.modified_at " +
+                   "RETURNING version",
+           nativeQuery = true)
+    long bump(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    
+    // Version 0 without a modification time reads the same as having no row
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(value = "INSERT INTO task_versions (user_id, version) VALUES (:userId, 0) ON CONFLICT (user_id) DO NOTHING",
+           nativeQuery = true)
+    void insertIfAbsent(@Param("userId") Long userId);
+    
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(value = "SELECT version FROM task_versions WHERE user_id = :userId FOR NO KEY UPDATE", nativeQuery = true)
+    long lock(@Param("userId") Long userId);
+}
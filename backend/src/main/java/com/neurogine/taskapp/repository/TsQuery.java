@@ -0,0 +1,31 @@
+package com.neurogine.taskapp.repository;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Builds Postgres tsquery strings from user input for the tasks.search_vector column.
+ */
+public final class TsQuery {
+    
+    private static final int MAX_TERMS = 8;
+    
+    private TsQuery() {
+    }
+    
+    /**
+     * Reduces free text to letter/digit terms, each matched as a prefix and all required,
+     * so user input can never break tsquery syntax. Returns an empty string if nothing is left.
+     */
+    public static String prefixQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_TERMS)
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -2,11 +2,28 @@ package com.neurogine.taskapp.repository;
 
 import com.neurogine.taskapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Sign-up, sign-in and the email check must see accounts created a moment ago, so these
+    // run read-write, which keeps them on the primary when read replicas are configured
+    @Transactional
     Optional<User> findByUsername(String username);
+    @Transactional
     Optional<User> findByEmail(String email);
+    @Transactional
     boolean existsByUsername(String username);
+    @Transactional
     boolean existsByEmail(String email);
+    
+    @Transactional
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+    
+    @Query("SELECT u.id FROM User u ORDER BY u.id")
+    List<Long> findAllIds();
 }
@@ -0,0 +1,26 @@
+package com.neurogine.taskapp.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.security.Principal;
+
+/**
+ * Lightweight principal placed in the security context by {@link JwtAuthFilter}.
+ * Carries just enough to scope queries to the caller without loading the User row.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal {
+    private final Long id;
+    private final String username;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
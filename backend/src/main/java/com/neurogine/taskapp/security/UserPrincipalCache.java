@@ -0,0 +1,41 @@
+package com.neurogine.taskapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neurogine.taskapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-evicted username to user id cache used when a token carries no id claim.
+ * Hit/miss/eviction counts are published as the "principalCache" cache metrics.
+ */
+@Component
+public class UserPrincipalCache {
+    
+    private final UserRepository userRepository;
+    private final Cache<String, Long> cache;
+    
+    public UserPrincipalCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                              @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${security.principal-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principalCache");
+    }
+    
+    public Long resolveUserId(String username) {
+        return cache.get(username, key -> userRepository.findIdByUsername(key).orElse(null));
+    }
+    
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+}
@@ -0,0 +1,19 @@
+package com.neurogine.taskapp.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Claims extracted from a bearer token whose signature and expiry have been checked.
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedToken {
+    private final String username;
+    private final Long userId;
+    private final long expiresAtMillis;
+    
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+}
@@ -0,0 +1,110 @@
+package com.neurogine.taskapp.service;
+
+import com.neurogine.taskapp.dto.TaskPage;
+import com.neurogine.taskapp.dto.TaskSummary;
+import com.neurogine.taskapp.model.Task;
+import com.neurogine.taskapp.repository.TsQuery;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Searches the tasks.search_vector tsvector column (title > tags > description weights,
+ * GIN indexed, kept current by Postgres as a generated column). Every term is matched as
+ * a prefix so partial words work for typeahead. Pages are keyset-paginated on (rank, id).
+ */
+@Service
+@ConditionalOnProperty(name = "tasks.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresTaskSearchService implements TaskSearchService {
+    
+    private static final String SEARCH_SQL =
+            "WITH q AS (SELECT to_tsquery('simple', :query) AS query) " +
+            "SELECT * FROM (" +
+            "  SELECT t.id, t.title, t.description, t.status, t.priority, t.due_date, t.category, t.tags, " +
+            "         t.created_at, t.updated_at, ts_rank(t.search_vector, q.query) AS rank " +
+            "  FROM tasks t, q " +
+            "  WHERE t.user_id = :userId AND t.search_vector @@ q.query" +
+            ") ranked " +
+            "WHERE ranked.rank < CAST(:rank AS real) OR (ranked.rank = CAST(:rank AS real) AND ranked.id < :id) " +
+            "ORDER BY ranked.rank DESC, ranked.id DESC " +
+            "LIMIT :limit";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    public PostgresTaskSearchService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public TaskPage search(Long userId, String query, String cursor, int size) {
+        String tsQuery = TsQuery.prefixQuery(query);
+        if (tsQuery.isEmpty()) {
+            return new TaskPage(List.of(), null);
+        }
+        
+        float afterRank = Float.MAX_VALUE;
+        long afterId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                afterRank = Float.parseFloat(raw.substring(0, separator));
+                afterId = Long.parseLong(raw.substring(separator + 1));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+        
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", tsQuery)
+                .addValue("userId", userId)
+                .addValue("rank", afterRank)
+                .addValue("id", afterId)
+                .addValue("limit", size + 1);
+        
+        List<Float> ranks = new ArrayList<>();
+        List<TaskSummary> rows = jdbcTemplate.query(SEARCH_SQL, params, (rs, rowNum) -> {
+            ranks.add(rs.getFloat("rank"));
+            return toSummary(rs);
+        });
+        
+        if (rows.size() <= size) {
+            return new TaskPage(rows, null);
+        }
+        TaskSummary last = rows.get(size - 1);
+        String raw = ranks.get(size - 1) + "|" + last.getId();
+        String nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        return new TaskPage(rows.subList(0, size), nextCursor);
+    }
+    
+    private static TaskSummary toSummary(ResultSet rs) throws SQLException {
+        return new TaskSummary(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getString("description"),
+                Task.TaskStatus.valueOf(rs.getString("status")),
+                Task.TaskPriority.valueOf(rs.getString("priority")),
+                toLocalDateTime(rs.getTimestamp("due_date")),
+                rs.getString("category"),
+                rs.getString("tags"),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("updated_at")));
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,54 @@
+package com.neurogine.taskapp.service;
+
+import com.neurogine.taskapp.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically recomputes every user's task counters and reports drift, both in the log
+ * and as the tasks.counters.drift metric. The first run also seeds counters for tasks
+ * that existed before counters were introduced.
+ */
+@Component
+public class TaskCounterReconciler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskCounterReconciler.class);
+    
+    private final TaskCounterService counterService;
+    private final UserRepository userRepository;
+    private final Counter driftCounter;
+    
+    public TaskCounterReconciler(TaskCounterService counterService, UserRepository userRepository,
+                                 MeterRegistry meterRegistry) {
+        this.counterService = counterService;
+        this.userRepository = userRepository;
+        this.driftCounter = Counter.builder("tasks.counters.drift")
+                .description("Task counter corrections made by reconciliation")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(initialDelayString = "${tasks.counters.reconcile-initial-delay:PT30S}",
+               fixedDelayString = "${tasks.counters.reconcile-interval:PT1H}")
+    public void reconcileAll() {
+        int checked = 0;
+        int drifted = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            try {
+                long drift = counterService.reconcile(userId);
+                if (drift > 0) {
+                    drifted++;
+                    driftCounter.increment(drift);
+                    logger.warn("Task counters for user #{} were off by {}; corrected", userId, drift);
+                }
+                checked++;
+            } catch (RuntimeException e) {
+                logger.error("Task counter reconciliation failed for user #{}", userId, e);
+            }
+        }
+        logger.info("Task counter reconciliation checked {} users, {} drifted", checked, drifted);
+    }
+}
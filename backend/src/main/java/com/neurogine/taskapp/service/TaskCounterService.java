@@ -0,0 +1,148 @@
+package com.neurogine.taskapp.service;
+
+import com.neurogine.taskapp.dto.TaskCountRow;
+import com.neurogine.taskapp.model.Task;
+import com.neurogine.taskapp.model.TaskCounter;
+import com.neurogine.taskapp.repository.TaskCounterRepository;
+import com.neurogine.taskapp.repository.TaskRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class TaskCounterService {
+    
+    private final TaskCounterRepository counterRepository;
+    private final TaskRepository taskRepository;
+    private final TaskVersionService versionService;
+    
+    public TaskCounterService(TaskCounterRepository counterRepository, TaskRepository taskRepository,
+                              TaskVersionService versionService) {
+        this.counterRepository = counterRepository;
+        this.taskRepository = taskRepository;
+        this.versionService = versionService;
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Long userId, Task.TaskStatus status, Task.TaskPriority priority) {
+        increment(userId, TaskCounter.Dimension.STATUS, status.name(), 1);
+        increment(userId, TaskCounter.Dimension.PRIORITY, priority.name(), 1);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanged(Long userId, Task.TaskStatus oldStatus, Task.TaskPriority oldPriority,
+                              Task.TaskStatus newStatus, Task.TaskPriority newPriority) {
+        if (oldStatus != newStatus) {
+            increment(userId, TaskCounter.Dimension.STATUS, oldStatus.name(), -1);
+            increment(userId, TaskCounter.Dimension.STATUS, newStatus.name(), 1);
+        }
+        if (oldPriority != newPriority) {
+            increment(userId, TaskCounter.Dimension.PRIORITY, oldPriority.name(), -1);
+            increment(userId, TaskCounter.Dimension.PRIORITY, newPriority.name(), 1);
+        }
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Long userId, Task.TaskStatus status, Task.TaskPriority priority) {
+        increment(userId, TaskCounter.Dimension.STATUS, status.name(), -1);
+        increment(userId, TaskCounter.Dimension.PRIORITY, priority.name(), -1);
+    }
+    
+    /**
+     * Applies the net changes of a bulk operation, writing each touched bucket once.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(Deltas deltas) {
+        deltas.values.forEach((key, delta) -> {
+            if (delta != 0) {
+                increment(key.getUserId(), key.getDimension(), key.getBucket(), delta);
+            }
+        });
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TaskCounter> getCounters(Long userId) {
+        return counterRepository.findByUserId(userId);
+    }
+    
+    /**
+     * Recomputes a user's counters from the tasks table and overwrites any that disagree.
+     * The user's task list version is locked first. Every task write takes that lock before
+     * it touches counters, so writes queue behind the fix, in the same lock order, and that
+     * includes writes to buckets that have no counter row yet.
+     *
+     * @return the total absolute difference found across all buckets
+     */
+    @Transactional
+    public long reconcile(Long userId) {
+        versionService.lock(userId);
+        
+        Map<TaskCounter.Key, Long> stored = new HashMap<>();
+        for (TaskCounter counter : counterRepository.findCurrentByUserId(userId)) {
+            stored.put(new TaskCounter.Key(userId, counter.getDimension(), counter.getBucket()), counter.getCount());
+        }
+        
+        Map<TaskCounter.Key, Long> actual = new HashMap<>();
+        for (TaskCountRow row : taskRepository.countByUserIdGrouped(userId)) {
+            actual.merge(new TaskCounter.Key(userId, TaskCounter.Dimension.STATUS, row.getStatus().name()),
+                    row.getTotal(), Long::sum);
+            actual.merge(new TaskCounter.Key(userId, TaskCounter.Dimension.PRIORITY, row.getPriority().name()),
+                    row.getTotal(), Long::sum);
+        }
+        
+        Set<TaskCounter.Key> keys = new HashSet<>(stored.keySet());
+        keys.addAll(actual.keySet());
+        
+        long drift = 0;
+        for (TaskCounter.Key key : keys) {
+            long expected = actual.getOrDefault(key, 0L);
+            long current = stored.getOrDefault(key, 0L);
+            if (expected != current) {
+                drift += Math.abs(expected - current);
+                counterRepository.setCount(userId, key.getDimension().name(), key.getBucket(), expected);
+            }
+        }
+        return drift;
+    }
+    
+    private void increment(Long userId, TaskCounter.Dimension dimension, String bucket, long delta) {
+        counterRepository.increment(userId, dimension.name(), bucket, delta);
+    }
+    
+    /**
+     * Net counter changes collected while a bulk operation walks its tasks.
+     */
+    public static class Deltas {
+        
+        private final Long userId;
+        private final Map<TaskCounter.Key, Long> values = new HashMap<>();
+        
+        public Deltas(Long userId) {
+            this.userId = userId;
+        }
+        
+        public void created(Task.TaskStatus status, Task.TaskPriority priority) {
+            add(status, priority, 1);
+        }
+        
+        public void changed(Task.TaskStatus oldStatus, Task.TaskPriority oldPriority,
+                            Task.TaskStatus newStatus, Task.TaskPriority newPriority) {
+            add(oldStatus, oldPriority, -1);
+            add(newStatus, newPriority, 1);
+        }
+        
+        public void deleted(Task.TaskStatus status, Task.TaskPriority priority) {
+            add(status, priority, -1);
+        }
+        
+        private void add(Task.TaskStatus status, Task.TaskPriority priority, long delta) {
+            values.merge(new TaskCounter.Key(userId, TaskCounter.Dimension.STATUS, status.name()), delta, Long::sum);
+            values.merge(new TaskCounter.Key(userId, TaskCounter.Dimension.PRIORITY, priority.name()), delta, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.neurogine.taskapp.service;
+
+import com.neurogine.taskapp.dto.TaskPage;
+
+/**
+ * Ranked free-text search over a user's tasks. Implementations own their cursor format;
+ * callers only pass back the nextCursor from the previous page.
+ */
+public interface TaskSearchService {
+    TaskPage search(Long userId, String query, String cursor, int size);
+}
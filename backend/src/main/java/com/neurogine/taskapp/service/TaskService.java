@@ -0,0 +1,375 @@
+package com.neurogine.taskapp.service;
+
+import com.neurogine.taskapp.dto.TaskEvent;
+import com.neurogine.taskapp.dto.TaskRequest;
+import com.neurogine.taskapp.dto.TaskUpdateRequest;
+import com.neurogine.taskapp.model.Task;
+import com.neurogine.taskapp.model.User;
+import com.neurogine.taskapp.repository.TaskRepository;
+import com.neurogine.taskapp.repository.TaskTagRepository;
+import com.neurogine.taskapp.repository.UserRepository;
+import com.neurogine.taskapp.security.AuthenticatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Task write paths. Each mutation commits in one transaction with its counter updates and
+ * the bump of the user's task list version. The version is taken first: its row lock orders
+ * a user's writes, and the number is stamped on every task touched (or on the tombstone of
+ * every task deleted) for delta sync. A TaskEvent is published for the stream subscribers and
+ * delivered only once the transaction commits, as are the tasks.created and tasks.completed
+ * counts.
+ */
+@Service
+public class TaskService {
+    
+    private static final String INSERT_TAG_SQL =
+            "INSERT INTO task_tags (task_id, tag, user_id) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+    
+    private static final String INSERT_TOMBSTONE_SQL =
+            "INSERT INTO task_tombstones (task_id, user_id, version, deleted_at) VALUES (?, ?, ?, ?)";
+    
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final TaskCounterService counterService;
+    private final TaskTagRepository taskTagRepository;
+    private final TaskVersionService versionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter tasksCreated;
+    private final Counter tasksCreatedInBulk;
+    private final Counter tasksCompleted;
+    private final Counter tasksCompletedInBulk;
+    
+    public TaskService(TaskRepository taskRepository, UserRepository userRepository,
+                       TaskCounterService counterService, TaskTagRepository taskTagRepository,
+                       TaskVersionService versionService, JdbcTemplate jdbcTemplate,
+                       ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.counterService = counterService;
+        this.taskTagRepository = taskTagRepository;
+        this.versionService = versionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.tasksCreated = taskCounter(meterRegistry, "tasks.created", "Tasks created", "single");
+        this.tasksCreatedInBulk = taskCounter(meterRegistry, "tasks.created", "Tasks created", "bulk");
+        this.tasksCompleted = taskCounter(meterRegistry, "tasks.completed", "Tasks moved to COMPLETED", "single");
+        this.tasksCompletedInBulk = taskCounter(meterRegistry, "tasks.completed", "Tasks moved to COMPLETED", "bulk");
+    }
+    
+    @Transactional
+    public Task create(TaskRequest request, AuthenticatedUser principal) {
+        Task task = new Task();
+        applyRequest(task, request);
+        task.setUser(userRepository.getReferenceById(principal.getId()));
+        task.setSyncVersion(versionService.bump(principal.getId()));
+        
+        Task saved = taskRepository.save(task);
+        counterService.recordCreated(principal.getId(), saved.getStatus(), saved.getPriority());
+        insertTags(saved.getId(), principal.getId(), saved.getTags());
+        publish(TaskEvent.Type.CREATED, saved);
+        countOnCommit(tasksCreated, 1);
+        return saved;
+    }
+    
+    @Transactional
+    public Task update(Long id, TaskRequest request, AuthenticatedUser principal) {
+        Task task = findOwned(id, principal);
+        
+        Task.TaskStatus oldStatus = task.getStatus();
+        Task.TaskPriority oldPriority = task.getPriority();
+        String oldTags = task.getTags();
+        
+        applyRequest(task, request);
+        task.setSyncVersion(versionService.bump(principal.getId()));
+        
+        Task saved = taskRepository.save(task);
+        counterService.recordChanged(principal.getId(), oldStatus, oldPriority, saved.getStatus(), saved.getPriority());
+        if (!Objects.equals(oldTags, saved.getTags())) {
+            taskTagRepository.deleteByTaskId(saved.getId());
+            insertTags(saved.getId(), principal.getId(), saved.getTags());
+        }
+        boolean completes = oldStatus != Task.TaskStatus.COMPLETED && saved.getStatus() == Task.TaskStatus.COMPLETED;
+        publish(completes ? TaskEvent.Type.COMPLETED : TaskEvent.Type.UPDATED, saved);
+        if (completes) {
+            countOnCommit(tasksCompleted, 1);
+        }
+        return saved;
+    }
+    
+    @Transactional
+    public Task markComplete(Long id, AuthenticatedUser principal) {
+        Task task = findOwned(id, principal);
+        Task.TaskStatus oldStatus = task.getStatus();
+        if (oldStatus == Task.TaskStatus.COMPLETED) {
+            // Nothing changes: no new version and no event
+            return task;
+        }
+        
+        long version = versionService.bump(principal.getId());
+        LocalDateTime now = LocalDateTime.now();
+        // One statement scoped to the owner and to the status read above. No row means the task
+        // was deleted or changed in between; the exception also rolls back the version bump
+        if (taskRepository.updateStatusByIdAndUserId(id, principal.getId(), oldStatus,
+                Task.TaskStatus.COMPLETED, version, now) == 0) {
+            findOwned(id, principal);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Task was changed by another request");
+        }
+        // The update detached the task; it is brought up to date for the response and the event
+        task.setStatus(Task.TaskStatus.COMPLETED);
+        task.setSyncVersion(version);
+        task.setUpdatedAt(now);
+        counterService.recordChanged(principal.getId(), oldStatus, task.getPriority(), task.getStatus(), task.getPriority());
+        publish(TaskEvent.Type.COMPLETED, task);
+        countOnCommit(tasksCompleted, 1);
+        return task;
+    }
+    
+    @Transactional
+    public void delete(Long id, AuthenticatedUser principal) {
+        // Versioned first: with the user's other writes held off, the status and priority read
+        // for the counters are still current when the row is deleted
+        long version = versionService.bump(principal.getId());
+        Task task = findOwned(id, principal);
+        
+        taskTagRepository.deleteByTaskId(id);
+        if (taskRepository.deleteByIdAndUserId(id, principal.getId()) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found");
+        }
+        counterService.recordDeleted(principal.getId(), task.getStatus(), task.getPriority());
+        insertTombstones(List.of(id), principal.getId(), version);
+        eventPublisher.publishEvent(TaskEvent.deleted(principal.getId(), version, List.of(id)));
+    }
+    
+    // Bulk variants: tasks are loaded in one query, written through Hibernate's JDBC batches
+    // (completion and deletion as one statement each), tags go in as one batched insert and
+    // each counter bucket is touched once.
+    
+    @Transactional
+    public List<Task> createAll(List<TaskRequest> requests, AuthenticatedUser principal) {
+        User owner = userRepository.getReferenceById(principal.getId());
+        long version = versionService.bump(principal.getId());
+        TaskCounterService.Deltas deltas = new TaskCounterService.Deltas(principal.getId());
+        List<Task> tasks = new ArrayList<>(requests.size());
+        for (TaskRequest request : requests) {
+            Task task = new Task();
+            applyRequest(task, request);
+            task.setUser(owner);
+            task.setSyncVersion(version);
+            tasks.add(task);
+            deltas.created(task.getStatus(), task.getPriority());
+        }
+        
+        List<Task> saved = taskRepository.saveAllAndFlush(tasks);
+        counterService.recordAll(deltas);
+        insertTags(saved, principal.getId());
+        eventPublisher.publishEvent(TaskEvent.changed(principal.getId(), TaskEvent.Type.CREATED, version, saved));
+        countOnCommit(tasksCreatedInBulk, saved.size());
+        return saved;
+    }
+    
+    @Transactional
+    public List<Task> updateAll(List<TaskUpdateRequest> requests, AuthenticatedUser principal) {
+        Map<Long, Task> tasks = findAllOwned(requests.stream().map(TaskUpdateRequest::getId).toList(), principal);
+        long version = versionService.bump(principal.getId());
+        TaskCounterService.Deltas deltas = new TaskCounterService.Deltas(principal.getId());
+        List<Task> retagged = new ArrayList<>();
+        int completions = 0;
+        for (TaskUpdateRequest request : requests) {
+            Task task = tasks.get(request.getId());
+            Task.TaskStatus oldStatus = task.getStatus();
+            Task.TaskPriority oldPriority = task.getPriority();
+            String oldTags = task.getTags();
+            
+            applyRequest(task, request);
+            task.setSyncVersion(version);
+            deltas.changed(oldStatus, oldPriority, task.getStatus(), task.getPriority());
+            if (oldStatus != Task.TaskStatus.COMPLETED && task.getStatus() == Task.TaskStatus.COMPLETED) {
+                completions++;
+            }
+            if (!Objects.equals(oldTags, task.getTags())) {
+                retagged.add(task);
+            }
+        }
+        
+        taskRepository.flush();
+        counterService.recordAll(deltas);
+        if (!retagged.isEmpty()) {
+            taskTagRepository.deleteByTaskIdIn(retagged.stream().map(Task::getId).toList());
+            insertTags(retagged, principal.getId());
+        }
+        eventPublisher.publishEvent(TaskEvent.changed(principal.getId(), TaskEvent.Type.UPDATED, version, tasks.values()));
+        countOnCommit(tasksCompletedInBulk, completions);
+        return new ArrayList<>(tasks.values());
+    }
+    
+    @Transactional
+    public List<Task> markAllComplete(List<Long> ids, AuthenticatedUser principal) {
+        Map<Long, Task> tasks = findAllOwned(ids, principal);
+        long version = versionService.bump(principal.getId());
+        TaskCounterService.Deltas deltas = new TaskCounterService.Deltas(principal.getId());
+        List<Task> completed = new ArrayList<>();
+        for (Task task : tasks.values()) {
+            if (task.getStatus() != Task.TaskStatus.COMPLETED) {
+                deltas.changed(task.getStatus(), task.getPriority(), Task.TaskStatus.COMPLETED, task.getPriority());
+                completed.add(task);
+            }
+        }
+        if (!completed.isEmpty()) {
+            // The update detaches the loaded tasks; they are brought up to date only for the
+            // response and the event
+            LocalDateTime now = LocalDateTime.now();
+            taskRepository.updateStatusByIdInAndUserId(completed.stream().map(Task::getId).toList(),
+                    principal.getId(), Task.TaskStatus.COMPLETED, version, now);
+            for (Task task : completed) {
+                task.setStatus(Task.TaskStatus.COMPLETED);
+                task.setSyncVersion(version);
+                task.setUpdatedAt(now);
+            }
+        }
+        counterService.recordAll(deltas);
+        if (!completed.isEmpty()) {
+            eventPublisher.publishEvent(TaskEvent.changed(principal.getId(), TaskEvent.Type.COMPLETED, version, completed));
+        }
+        countOnCommit(tasksCompletedInBulk, completed.size());
+        return new ArrayList<>(tasks.values());
+    }
+    
+    @Transactional
+    public void deleteAll(List<Long> ids, AuthenticatedUser principal) {
+        Map<Long, Task> tasks = findAllOwned(ids, principal);
+        long version = versionService.bump(principal.getId());
+        TaskCounterService.Deltas deltas = new TaskCounterService.Deltas(principal.getId());
+        for (Task task : tasks.values()) {
+            deltas.deleted(task.getStatus(), task.getPriority());
+        }
+        
+        taskTagRepository.deleteByTaskIdIn(tasks.keySet());
+        taskRepository.deleteByIdInAndUserId(tasks.keySet(), principal.getId());
+        counterService.recordAll(deltas);
+        insertTombstones(tasks.keySet(), principal.getId(), version);
+        eventPublisher.publishEvent(TaskEvent.deleted(principal.getId(), version, tasks.keySet()));
+    }
+    
+    private static void countOnCommit(Counter counter, int amount) {
+        if (amount > 0) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter.increment(amount);
+                }
+            });
+        }
+    }
+    
+    private static Counter taskCounter(MeterRegistry meterRegistry, String name, String description, String source) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+    
+    private void publish(TaskEvent.Type type, Task task) {
+        eventPublisher.publishEvent(TaskEvent.changed(task.getUser().getId(), type, task.getSyncVersion(), List.of(task)));
+    }
+    
+    // Another user's task is reported as missing, so ids cannot be probed for existence
+    private Task findOwned(Long id, AuthenticatedUser principal) {
+        return taskRepository.findByIdAndUserId(id, principal.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found"));
+    }
+    
+    /**
+     * Loads the given tasks in one query, in request order and without duplicates.
+     * Fails the whole request if any id is missing or belongs to another user.
+     */
+    private Map<Long, Task> findAllOwned(List<Long> ids, AuthenticatedUser principal) {
+        Map<Long, Task> found = new HashMap<>();
+        for (Task task : taskRepository.findAllByIdInAndUserId(ids, principal.getId())) {
+            found.put(task.getId(), task);
+        }
+        
+        Map<Long, Task> owned = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Task task = found.get(id);
+            if (task == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Task " + id + " not found");
+            }
+            owned.put(id, task);
+        }
+        return owned;
+    }
+    
+    private void insertTags(List<Task> tasks, Long userId) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Task task : tasks) {
+            for (String tag : normalizeTags(task.getTags())) {
+                rows.add(new Object[] {task.getId(), tag, userId});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TAG_SQL, rows);
+        }
+    }
+    
+    private void insertTombstones(Collection<Long> taskIds, Long userId, long version) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(taskIds.size());
+        for (Long taskId : taskIds) {
+            rows.add(new Object[] {taskId, userId, version, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_TOMBSTONE_SQL, rows);
+    }
+    
+    private void insertTags(Long taskId, Long userId, String tags) {
+        for (String tag : normalizeTags(tags)) {
+            taskTagRepository.insert(taskId, tag, userId);
+        }
+    }
+    
+    /**
+     * Splits the comma-separated tags field into the trimmed, lower-cased, de-duplicated
+     * values stored in task_tags and matched by the ?tag= filter.
+     */
+    public static Set<String> normalizeTags(String tags) {
+        if (tags == null || tags.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(tags.split(","))
+                .map(tag -> tag.trim().toLowerCase(Locale.ROOT))
+                .filter(tag -> !tag.isEmpty() && tag.length() <= 50)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+    
+    private void applyRequest(Task task, TaskRequest request) {
+        task.setTitle(request.getTitle());
+        task.setDescription(request.getDescription());
+        task.setStatus(request.getStatus());
+        task.setPriority(request.getPriority());
+        task.setDueDate(request.getDueDate());
+        task.setCategory(request.getCategory());
+        task.setTags(request.getTags());
+    }
+}
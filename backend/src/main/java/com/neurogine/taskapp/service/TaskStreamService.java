@@ -0,0 +1,320 @@
+package com.neurogine.taskapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neurogine.taskapp.dto.TaskEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed task writes to the owner's open /api/tasks/stream connections.
+ *
+ * <p>Connections are async servlet requests, so an idle subscriber holds a socket and a small
+ * buffer but no thread. Each event is serialized once, queued on every subscriber of the user
+ * and written by a small dispatch pool that drains one subscriber at a time. A subscriber
+ * whose buffer fills up is too slow to keep up and is disconnected; it reconnects and catches
+ * up through /api/tasks/changes.
+ *
+ * <p>Writes block, so a client that stops reading can hold a dispatch thread until the
+ * container's socket write timeout. A watchdog disconnects any subscriber whose write has taken
+ * longer than {@code tasks.stream.write-timeout} and adds a thread to the pool until that write
+ * returns, so stalled clients never hold up everyone else's events.
+ */
+@Service
+public class TaskStreamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskStreamService.class);
+    
+    private static final MediaType TEXT_PLAIN = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> CONNECTED = frame(":connected\n\n");
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT = frame(":heartbeat\n\n");
+    private static final Duration STALL_CHECK_INTERVAL = Duration.ofSeconds(1);
+    // Subscriber.sendStarted values other than a write's start time
+    private static final long NOT_SENDING = 0;
+    private static final long STALLED = Long.MIN_VALUE;
+    
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadPoolExecutor dispatcher;
+    // Heartbeats and stall checks; not the shared @Scheduled thread, which other jobs can hold up
+    private final ScheduledExecutorService watchdog;
+    private final ObjectMapper objectMapper;
+    private final Counter evictions;
+    private final Duration timeout;
+    private final long writeTimeoutNanos;
+    private final int bufferSize;
+    private final int maxPerUser;
+    private final int maxSubscribers;
+    
+    public TaskStreamService(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${tasks.stream.timeout:PT30M}") Duration timeout,
+                             @Value("${tasks.stream.buffer-size:64}") int bufferSize,
+                             @Value("${tasks.stream.max-per-user:10}") int maxPerUser,
+                             @Value("${tasks.stream.max-subscribers:20000}") int maxSubscribers,
+                             @Value("${tasks.stream.dispatch-threads:4}") int dispatchThreads,
+                             @Value("${tasks.stream.write-timeout:PT5S}") Duration writeTimeout,
+                             @Value("${tasks.stream.heartbeat-interval:PT30S}") Duration heartbeatInterval) {
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.bufferSize = bufferSize;
+        this.maxPerUser = maxPerUser;
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "task-stream-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-stream-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        watchdog.scheduleWithFixedDelay(this::evictStalled, STALL_CHECK_INTERVAL.toMillis(),
+                STALL_CHECK_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        this.evictions = Counter.builder("tasks.stream.evictions")
+                .description("Subscribers disconnected for falling behind")
+                .register(meterRegistry);
+        Gauge.builder("tasks.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open task event streams")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Opens an event stream for the user.
+     *
+     * @throws ResponseStatusException 429 if the user already has the maximum number of
+     *         streams open, 503 if the server does
+     */
+    public SseEmitter subscribe(Long userId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Task streams are at capacity");
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter, bufferSize);
+        try {
+            // compute, not computeIfAbsent: remove() may drop the user's set concurrently
+            subscribers.compute(userId, (id, own) -> {
+                Set<Subscriber> set = own != null ? own : ConcurrentHashMap.newKeySet();
+                if (set.size() >= maxPerUser) {
+                    throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many open task streams");
+                }
+                set.add(subscriber);
+                return set;
+            });
+        } catch (ResponseStatusException e) {
+            subscriberCount.decrementAndGet();
+            throw e;
+        }
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> {
+            // Ends the response normally; clients reconnect on their own
+            remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(error -> remove(subscriber));
+        try {
+            // Sent on this thread so the response is committed while the request is still
+            // being handled; a dispatch thread committing it would race the filters' headers
+            emitter.send(CONNECTED);
+        } catch (IOException e) {
+            remove(subscriber);
+            throw new UncheckedIOException(e);
+        }
+        return emitter;
+    }
+    
+    @TransactionalEventListener
+    public void onTaskEvent(TaskEvent event) {
+        Set<Subscriber> own = subscribers.get(event.getUserId());
+        if (own == null || own.isEmpty()) {
+            return;
+        }
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            logger.error("Could not serialize task event for user {}", event.getUserId(), e);
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> message =
+                frame("event:" + event.getType().name().toLowerCase(Locale.ROOT) + "\ndata:" + data + "\n\n");
+        for (Subscriber subscriber : own) {
+            offer(subscriber, message);
+        }
+    }
+    
+    // Keeps proxies from closing idle streams and finds connections that went away
+    void heartbeat() {
+        for (Set<Subscriber> own : subscribers.values()) {
+            for (Subscriber subscriber : own) {
+                offer(subscriber, HEARTBEAT);
+            }
+        }
+    }
+    
+    void evictStalled() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> own : subscribers.values()) {
+            for (Subscriber subscriber : own) {
+                long started = subscriber.sendStarted.get();
+                if (started == NOT_SENDING || started == STALLED || now - started < writeTimeoutNanos
+                        || !subscriber.sendStarted.compareAndSet(started, STALLED)) {
+                    continue;
+                }
+                // The write stays blocked until the socket times out; the pool gets a thread
+                // in its place until then, and the drain completes the emitter once it returns
+                resizeDispatcher(1);
+                evict(subscriber);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        dispatcher.shutdownNow();
+        for (Set<Subscriber> own : subscribers.values()) {
+            for (Subscriber subscriber : own) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+    
+    // A whole SSE frame as one write; SseEmitter.event() would write and convert each field
+    // separately, which adds up across thousands of subscribers
+    private static Set<ResponseBodyEmitter.DataWithMediaType> frame(String text) {
+        return Set.of(new ResponseBodyEmitter.DataWithMediaType(text, TEXT_PLAIN));
+    }
+    
+    private void offer(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        if (!subscriber.queue.offer(message)) {
+            evict(subscriber);
+        }
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> message;
+            while (!subscriber.removed.get() && (message = subscriber.queue.poll()) != null) {
+                subscriber.sendStarted.set(startTime());
+                try {
+                    subscriber.emitter.send(message);
+                } finally {
+                    if (subscriber.sendStarted.getAndSet(NOT_SENDING) == STALLED) {
+                        // The watchdog gave up on this write and added a thread in its place
+                        resizeDispatcher(-1);
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container reports the error and completes the request
+            remove(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (subscriber.evicted.get() && subscriber.completed.compareAndSet(false, true)) {
+            subscriber.emitter.complete();
+        } else if (!subscriber.queue.isEmpty() && subscriber.scheduled.compareAndSet(false, true)) {
+            // An event arrived after the last poll but before the flag was cleared
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void evict(Subscriber subscriber) {
+        // Completing here could block the calling thread on a stalled write, so the
+        // subscriber is only marked; its drain completes the emitter
+        if (remove(subscriber)) {
+            subscriber.evicted.set(true);
+            evictions.increment();
+            logger.debug("Evicted slow task stream subscriber of user {}", subscriber.userId);
+        }
+        subscriber.queue.clear();
+    }
+    
+    private synchronized void resizeDispatcher(int delta) {
+        int size = dispatcher.getMaximumPoolSize() + delta;
+        // The core size may never exceed the maximum, so the order depends on the direction
+        if (delta > 0) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+    
+    private static long startTime() {
+        long now = System.nanoTime();
+        return now == NOT_SENDING || now == STALLED ? now + 1 : now;
+    }
+    
+    private boolean remove(Subscriber subscriber) {
+        if (!subscriber.removed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.userId, (id, own) -> {
+            own.remove(subscriber);
+            return own.isEmpty() ? null : own;
+        });
+        return true;
+    }
+    
+    private static class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private final AtomicBoolean evicted = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        // When the write in progress started, NOT_SENDING between writes, STALLED once evicted
+        private final AtomicLong sendStarted = new AtomicLong(NOT_SENDING);
+    
+        Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.neurogine.taskapp.service;
+
+import com.neurogine.taskapp.dto.SyncToken;
+import com.neurogine.taskapp.dto.TaskChangeRow;
+import com.neurogine.taskapp.dto.TaskChanges;
+import com.neurogine.taskapp.dto.TaskSummary;
+import com.neurogine.taskapp.model.TaskTombstone;
+import com.neurogine.taskapp.repository.TaskRepository;
+import com.neurogine.taskapp.repository.TaskTombstoneRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta sync over the per-user task list version. Every write stamps the version it took on
+ * the tasks it touched and on tombstones for the ones it deleted; because a user's writes
+ * commit in version order, everything above the version a client holds is exactly what it
+ * has not seen. Payloads therefore scale with churn, not with the size of the list.
+ */
+@Service
+public class TaskSyncService {
+    
+    private final TaskRepository taskRepository;
+    private final TaskTombstoneRepository tombstoneRepository;
+    private final TaskVersionService versionService;
+    private final Duration tombstoneRetention;
+    
+    public TaskSyncService(TaskRepository taskRepository, TaskTombstoneRepository tombstoneRepository,
+                           TaskVersionService versionService,
+                           @Value("${tasks.sync.tombstone-retention:P30D}") Duration tombstoneRetention) {
+        this.taskRepository = taskRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.versionService = versionService;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+    
+    /**
+     * Without a token, returns no changes and a token for the current version; clients take
+     * it before downloading the full list. With one, returns up to {@code size} tasks changed
+     * or deleted since, together in commit order.
+     *
+     * @throws ResponseStatusException 410 if the token predates the tombstone retention and
+     *         the client has to download the full list again
+     */
+    @Transactional(readOnly = true)
+    public TaskChanges changesSince(Long userId, SyncToken since, int size) {
+        long now = System.currentTimeMillis();
+        // Read before the changes: anything committed in between is sent again next time
+        long current = versionService.current(userId).getVersion();
+        if (since == null) {
+            return new TaskChanges(List.of(), List.of(), new SyncToken(current, Long.MAX_VALUE, now).encode(), false);
+        }
+        if (since.getIssuedAtMillis() < now - tombstoneRetention.toMillis()) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Sync token expired, reload all tasks");
+        }
+        
+        List<TaskChangeRow> rows = taskRepository.findChangedSince(
+                userId, since.getVersion(), since.getAfterId(), Pageable.ofSize(size + 1));
+        List<TaskTombstone> tombstones = tombstoneRepository.findDeletedSince(
+                userId, since.getVersion(), since.getAfterId(), Pageable.ofSize(size + 1));
+        
+        // Both lists are in (version, id) order and ids never repeat across them, so merging
+        // them gives one sequence the token can point into
+        List<TaskSummary> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        int nextRow = 0;
+        int nextTombstone = 0;
+        long lastVersion = since.getVersion();
+        long lastId = since.getAfterId();
+        while (changed.size() + deleted.size() < size
+                && (nextRow < rows.size() || nextTombstone < tombstones.size())) {
+            boolean row = nextTombstone == tombstones.size() || (nextRow < rows.size()
+                    && compare(rows.get(nextRow), tombstones.get(nextTombstone)) < 0);
+            if (row) {
+                TaskChangeRow change = rows.get(nextRow++);
+                changed.add(change.getTask());
+                lastVersion = change.getSyncVersion();
+                lastId = change.getTask().getId();
+            } else {
+                TaskTombstone tombstone = tombstones.get(nextTombstone++);
+                deleted.add(tombstone.getTaskId());
+                lastVersion = tombstone.getVersion();
+                lastId = tombstone.getTaskId();
+            }
+        }
+        
+        if (nextRow == rows.size() && nextTombstone == tombstones.size()) {
+            long version = Math.max(current, since.getVersion());
+            return new TaskChanges(changed, deleted, new SyncToken(version, Long.MAX_VALUE, now).encode(), false);
+        }
+        // Still points into the history the client started from: it keeps that token's age, or
+        // paging could outlive the tombstones it has yet to read
+        return new TaskChanges(changed, deleted,
+                new SyncToken(lastVersion, lastId, since.getIssuedAtMillis()).encode(), true);
+    }
+    
+    private static int compare(TaskChangeRow row, TaskTombstone tombstone) {
+        int byVersion = Long.compare(row.getSyncVersion(), tombstone.getVersion());
+        return byVersion != 0 ? byVersion : Long.compare(row.getTask().getId(), tombstone.getTaskId());
+    }
+}
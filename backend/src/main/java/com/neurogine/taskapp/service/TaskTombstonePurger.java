@@ -0,0 +1,37 @@
+package com.neurogine.taskapp.service;
+
+import com.neurogine.taskapp.repository.TaskTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes tombstones older than the sync retention; tokens that old get 410 instead.
+ */
+@Component
+public class TaskTombstonePurger {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TaskTombstonePurger.class);
+    
+    private final TaskTombstoneRepository tombstoneRepository;
+    private final Duration retention;
+    
+    public TaskTombstonePurger(TaskTombstoneRepository tombstoneRepository,
+                               @Value("${tasks.sync.tombstone-retention:P30D}") Duration retention) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.retention = retention;
+    }
+    
+    @Scheduled(initialDelayString = "${tasks.sync.purge-interval:PT1H}",
+               fixedDelayString = "${tasks.sync.purge-interval:PT1H}")
+    public void purge() {
+        int purged = tombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            logger.info("Purged {} task tombstones older than {}", purged, retention);
+        }
+    }
+}
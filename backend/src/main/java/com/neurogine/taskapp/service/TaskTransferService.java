@@ -0,0 +1,220 @@
+package com.neurogine.taskapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.neurogine.taskapp.dto.ImportSummary;
+import com.neurogine.taskapp.dto.TaskRequest;
+import com.neurogine.taskapp.dto.TaskSummary;
+import com.neurogine.taskapp.repository.TaskRepository;
+import com.neurogine.taskapp.security.AuthenticatedUser;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Streams a user's tasks out as NDJSON or CSV and reads NDJSON back in. Both directions
+ * work in bounded pages and lines, so memory use does not grow with the number of tasks.
+ *
+ * <p>Exports read one keyset page at a time, each in its own short transaction, and write it
+ * out before reading the next: a slow client holds a request thread but no pooled connection.
+ * The export is therefore not one snapshot; tasks written meanwhile may or may not appear.
+ */
+@Service
+public class TaskTransferService {
+    
+    private static final String[] CSV_COLUMNS = {
+        "id", "title", "description", "status", "priority", "dueDate", "category", "tags", "createdAt", "updatedAt"
+    };
+    private static final String FORMULA_PREFIXES = "=+-@";
+    
+    private final TaskRepository taskRepository;
+    private final TaskService taskService;
+    private final Validator validator;
+    private final ObjectWriter summaryWriter;
+    private final ObjectReader requestReader;
+    private final int batchSize;
+    private final int maxErrors;
+    private final int maxLineLength;
+    private final int exportPageSize;
+    
+    public TaskTransferService(TaskRepository taskRepository, TaskService taskService, Validator validator,
+                               ObjectMapper objectMapper,
+                               @Value("${tasks.import.batch-size:500}") int batchSize,
+                               @Value("${tasks.import.max-errors:100}") int maxErrors,
+                               @Value("${tasks.import.max-line-length:65536}") int maxLineLength,
+                               @Value("${tasks.export.page-size:500}") int exportPageSize) {
+        this.taskRepository = taskRepository;
+        this.taskService = taskService;
+        this.validator = validator;
+        this.summaryWriter = objectMapper.writerFor(TaskSummary.class);
+        this.requestReader = objectMapper.readerFor(TaskRequest.class);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.maxLineLength = maxLineLength;
+        this.exportPageSize = exportPageSize;
+    }
+    
+    public void exportNdjson(Long userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        export(userId, task -> {
+            writer.write(summaryWriter.writeValueAsString(task));
+            writer.write('\n');
+        });
+        writer.flush();
+    }
+    
+    public void exportCsv(Long userId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write("\r\n");
+        export(userId, task -> {
+            writer.write(task.getId() + "," + csv(task.getTitle()) + "," + csv(task.getDescription()) + "," +
+                    task.getStatus() + "," + task.getPriority() + "," + csv(task.getDueDate()) + "," +
+                    csv(task.getCategory()) + "," + csv(task.getTags()) + "," +
+                    csv(task.getCreatedAt()) + "," + csv(task.getUpdatedAt()));
+            writer.write("\r\n");
+        });
+        writer.flush();
+    }
+    
+    // No transaction here: each page query runs in its own, so the connection goes back to
+    // the pool while the page is written to the client
+    private void export(Long userId, RowWriter rowWriter) throws IOException {
+        long afterId = 0;
+        List<TaskSummary> page;
+        do {
+            page = taskRepository.findExportPage(userId, afterId, Pageable.ofSize(exportPageSize));
+            for (TaskSummary task : page) {
+                rowWriter.write(task);
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == exportPageSize);
+    }
+    
+    /**
+     * Reads one TaskRequest per line and creates the valid ones in batches, each batch in
+     * its own transaction. Invalid lines, and lines longer than {@code tasks.import.max-line-length}
+     * characters, are skipped and reported; batches already written stay written if a later one fails.
+     */
+    public ImportSummary importNdjson(InputStream in, AuthenticatedUser principal) throws IOException {
+        ImportSummary summary = new ImportSummary();
+        List<TaskRequest> batch = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        StringBuilder buffer = new StringBuilder();
+        
+        long lineNumber = 0;
+        long length;
+        while ((length = readLine(reader, buffer)) >= 0) {
+            lineNumber++;
+            if (length > maxLineLength) {
+                reject(summary, lineNumber, "Line longer than " + maxLineLength + " characters");
+                continue;
+            }
+            String line = buffer.toString();
+            if (line.isBlank()) {
+                continue;
+            }
+            
+            TaskRequest request;
+            try {
+                request = requestReader.readValue(line);
+            } catch (InvalidFormatException e) {
+                List<JsonMappingException.Reference> path = e.getPath();
+                reject(summary, lineNumber, path.isEmpty() ? "Invalid value"
+                        : "Invalid value for " + path.get(path.size() - 1).getFieldName());
+                continue;
+            } catch (JsonProcessingException e) {
+                reject(summary, lineNumber, "Malformed JSON");
+                continue;
+            }
+            Set<ConstraintViolation<TaskRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(summary, lineNumber, violations.iterator().next().getMessage());
+                continue;
+            }
+            
+            batch.add(request);
+            if (batch.size() == batchSize) {
+                summary.setImported(summary.getImported() + taskService.createAll(batch, principal).size());
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            summary.setImported(summary.getImported() + taskService.createAll(batch, principal).size());
+        }
+        return summary;
+    }
+    
+    /**
+     * Reads the next line into {@code line} without its terminator, like BufferedReader.readLine
+     * but keeping at most maxLineLength characters; the rest of a longer line is read and dropped.
+     *
+     * @return the full length of the line, or -1 at the end of the input
+     */
+    private long readLine(Reader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        long length = 0;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (length++ < maxLineLength) {
+                line.append((char) c);
+            }
+        }
+        if (c == -1 && length == 0) {
+            return -1;
+        }
+        if (length > 0 && length <= maxLineLength && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+            length--;
+        }
+        return length;
+    }
+    
+    private void reject(ImportSummary summary, long line, String message) {
+        summary.setFailed(summary.getFailed() + 1);
+        if (summary.getErrors().size() < maxErrors) {
+            summary.getErrors().add(new ImportSummary.LineError(line, message));
+        }
+    }
+    
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            // Spreadsheets would run the cell as a formula; the quote makes them show it as text
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+    
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(TaskSummary task) throws IOException;
+    }
+}
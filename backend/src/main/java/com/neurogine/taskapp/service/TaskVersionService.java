@@ -0,0 +1,46 @@
+package com.neurogine.taskapp.service;
+
+import com.neurogine.taskapp.model.TaskVersion;
+import com.neurogine.taskapp.repository.TaskVersionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+
+@Service
+public class TaskVersionService {
+    
+    private final TaskVersionRepository versionRepository;
+    
+    public TaskVersionService(TaskVersionRepository versionRepository) {
+        this.versionRepository = versionRepository;
+    }
+    
+    /**
+     * Records a task write and returns the user's new version. The version row stays locked
+     * until the transaction ends, so a user's writes commit in version order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long bump(Long userId) {
+        return versionRepository.bump(userId, LocalDateTime.now());
+    }
+    
+    /**
+     * Takes the row lock that {@link #bump} takes, without recording a write: until the
+     * transaction ends, none of the user's task writes can start or be in progress.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock(Long userId) {
+        versionRepository.insertIfAbsent(userId);
+        versionRepository.lock(userId);
+    }
+    
+    /**
+     * @return the user's current version; version 0 with no modification time if the
+     *         user has never written a task
+     */
+    @Transactional(readOnly = true)
+    public TaskVersion current(Long userId) {
+        return versionRepository.findById(userId).orElseGet(() -> new TaskVersion(userId));
+    }
+}
@@ -0,0 +1,23 @@
+-- Index plan for the task queries, checked with QueryPlanTest (backend tests) against
+-- one 100,000-task account among 300 ordinary ones. Every query leads with user_id; the
+-- additions below cover the queries that still read the heavy account's rows from the heap
+-- or the whole table.
+
+-- Export (TaskRepository.findExportPage) reads a user's tasks in id order, one keyset page at a
+-- time. Without this an account's rows were all fetched and sorted for every page.
+CREATE INDEX IF NOT EXISTS idx_tasks_user_id ON tasks (user_id, id);
+
+-- Due counts (countDueByUserId) also test status; carrying it in the index makes them an
+-- index-only scan. Same name and key columns, so due-date sorts and ranges are unaffected.
+DROP INDEX IF EXISTS idx_tasks_user_due_date;
+CREATE INDEX idx_tasks_user_due_date ON tasks (user_id, due_date) INCLUDE (status);
+
+-- Counter reconciliation (countByUserIdGrouped) groups a user's tasks by status and priority;
+-- with priority included it no longer reads every row of the account from the heap.
+DROP INDEX IF EXISTS idx_tasks_user_status_created_id;
+CREATE INDEX idx_tasks_user_status_created_id ON tasks (user_id, status, created_at DESC, id DESC)
+    INCLUDE (priority);
+
+-- Category list (findDistinctCategoriesByUserId), an index-only scan over tasks with a category
+CREATE INDEX IF NOT EXISTS idx_tasks_user_category ON tasks (user_id, category)
+    WHERE category IS NOT NULL;
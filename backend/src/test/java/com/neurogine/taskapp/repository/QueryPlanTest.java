@@ -0,0 +1,444 @@
+package com.neurogine.taskapp.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neurogine.taskapp.dto.TaskCursor;
+import com.neurogine.taskapp.dto.TaskFilter;
+import com.neurogine.taskapp.dto.TaskSort;
+import com.neurogine.taskapp.model.Task;
+import com.neurogine.taskapp.service.PostgresTaskSearchService;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Plan regression check for the repository queries. The application starts against a throwaway
+ * schema migrated by its own Flyway scripts and seeded with one heavy account and many ordinary
+ * ones. Each repository call then runs for both kinds of user inside a rolled-back transaction,
+ * a datasource-proxy listener records the SQL and parameters Hibernate and JdbcTemplate actually
+ * send, and every recorded statement is EXPLAINed. A plan that reads a table with a sequential
+ * scan fails the test, so a dropped index or a query changing shape fails the build.
+ *
+ * <p>Opt-in, as it needs a PostgreSQL database and takes about a minute: it only runs when
+ * {@value #URL_PROPERTY} names the database to use, with {@value #USERNAME_PROPERTY} and
+ * {@value #PASSWORD_PROPERTY} if they differ from spring.datasource.*. Point it at a scratch
+ * database; the {@value #SCHEMA} schema there is dropped and recreated on every run and dropped
+ * afterwards, and nothing else is touched.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.schema=" + QueryPlanTest.SCHEMA,
+        "spring.flyway.schemas=" + QueryPlanTest.SCHEMA,
+        // A reconciliation pass over the seeded accounts would only slow the run down
+        "tasks.counters.reconcile-initial-delay=P1D",
+        "logging.file.path=target/logs"
+})
+@EnabledIfSystemProperty(named = QueryPlanTest.URL_PROPERTY, matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+    
+    static final String SCHEMA = "plan_check";
+    static final String URL_PROPERTY = "plan-check.url";
+    static final String USERNAME_PROPERTY = "plan-check.username";
+    static final String PASSWORD_PROPERTY = "plan-check.password";
+    
+    private static final int ACCOUNTS = 20000;
+    private static final int USERS = 300;
+    private static final int TASKS_PER_USER = 1000;
+    private static final int HEAVY_TASKS = 100000;
+    private static final Pattern READ = Pattern.compile("\\s*(select|with)\\b", Pattern.CASE_INSENSITIVE);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private StatementRecorder recorder;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private TaskTagRepository taskTagRepository;
+    
+    @Autowired
+    private TaskCounterRepository counterRepository;
+    
+    @Autowired
+    private TaskVersionRepository versionRepository;
+    
+    @Autowired
+    private TaskTombstoneRepository tombstoneRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PostgresTaskSearchService searchService;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Subject> subjects;
+    
+    // Only the database named on the command line, never the configured default
+    @DynamicPropertySource
+    static void planCheckDatabase(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty(URL_PROPERTY));
+        if (System.getProperty(USERNAME_PROPERTY) != null) {
+            registry.add("spring.datasource.username", () -> System.getProperty(USERNAME_PROPERTY));
+        }
+        if (System.getProperty(PASSWORD_PROPERTY) != null) {
+            registry.add("spring.datasource.password", () -> System.getProperty(PASSWORD_PROPERTY));
+        }
+    }
+    
+    @BeforeAll
+    void seed() {
+        // Same shape as sql/filter-dataset.sql: mostly completed work, 20% without a due date.
+        // Only the first users own tasks; the other accounts give users a realistic size, as
+        // Postgres rightly reads a table of a few pages whole
+        jdbcTemplate.execute("INSERT INTO users (username, email, password, created_at) " +
+                "SELECT 'plan_' || n, 'plan_' || n || '@example.com', 'x', now() " +
+                "FROM generate_series(0, " + ACCOUNTS + ") AS n");
+        jdbcTemplate.execute("SELECT setseed(0.42)");
+        jdbcTemplate.execute("INSERT INTO tasks (id, user_id, title, description, status, priority, category, tags, " +
+                "due_date, created_at, updated_at, sync_version) " +
+                "SELECT nextval('task_id_seq'), u.id, " +
+                "'Task ' || g || ' ' || (ARRAY['report','deploy','review','invoice','meeting','refactor'])[1 + g % 6], " +
+                "'Generated task ' || g, " +
+                "(SELECT CASE WHEN r < 0.85 THEN 'COMPLETED' WHEN r < 0.90 THEN 'CANCELLED' " +
+                "             WHEN r < 0.97 THEN 'PENDING' ELSE 'IN_PROGRESS' END FROM (SELECT random() + g * 0 AS r) s), " +
+                "(ARRAY['LOW','MEDIUM','HIGH','URGENT'])[1 + floor(random() * 4)::int], " +
+                "(ARRAY['work','home','errands','health','finance'])[1 + floor(random() * 5)::int], " +
+                "(ARRAY['q1','q2','ops','backend','frontend','urgent'])[1 + floor(random() * 6)::int] || ',' " +
+                "    || (ARRAY['alpha','beta','gamma'])[1 + floor(random() * 3)::int], " +
+                "CASE WHEN random() < 0.2 THEN NULL ELSE now() + (random() * 120 - 60) * interval '1 day' END, " +
+                "now() - g * interval '1 minute', now() - g * interval '1 minute', g " +
+                "FROM users u CROSS JOIN LATERAL generate_series(1, " +
+                "    CASE WHEN u.id > (SELECT min(id) FROM users) + " + USERS + " THEN 0 " +
+                "         WHEN u.username = 'plan_0' THEN " + HEAVY_TASKS + " ELSE " + TASKS_PER_USER + " END) AS g");
+        jdbcTemplate.execute("INSERT INTO task_tags (task_id, tag, user_id) " +
+                "SELECT t.id, trim(tag), t.user_id FROM tasks t " +
+                "CROSS JOIN LATERAL unnest(string_to_array(t.tags, ',')) AS tag ON CONFLICT DO NOTHING");
+        jdbcTemplate.execute("INSERT INTO task_counters (user_id, dimension, bucket, task_count) " +
+                "SELECT user_id, 'STATUS', status, count(*) FROM tasks GROUP BY user_id, status " +
+                "UNION ALL SELECT user_id, 'PRIORITY', priority, count(*) FROM tasks GROUP BY user_id, priority");
+        jdbcTemplate.execute("INSERT INTO task_tombstones (task_id, user_id, version, deleted_at) " +
+                "SELECT nextval('task_id_seq'), u.id, g, now() - g * interval '1 day' " +
+                "FROM users u CROSS JOIN LATERAL generate_series(1, 40) AS g " +
+                "WHERE u.id <= (SELECT min(id) FROM users) + " + USERS);
+        jdbcTemplate.execute("INSERT INTO task_versions (user_id, version, modified_at) " +
+                "SELECT u.id, coalesce(max(t.sync_version), 0), max(t.updated_at) FROM users u " +
+                "LEFT JOIN tasks t ON t.user_id = u.id GROUP BY u.id");
+        // Vacuumed as autovacuum would have, so index-only scans are costed as they run in production
+        jdbcTemplate.execute("VACUUM ANALYZE");
+    
+        subjects = List.of(subject("plan_0", "heavy"), subject("plan_1", "ordinary"));
+    }
+    
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+    }
+    
+    @TestFactory
+    Stream<DynamicTest> noSequentialScans() {
+        List<Call> calls = new ArrayList<>();
+    
+        // TaskRepository
+        calls.add(new Call("findByIdAndUserId", s -> taskRepository.findByIdAndUserId(s.taskIds.get(0), s.userId)));
+        calls.add(new Call("findAllByIdInAndUserId", s -> taskRepository.findAllByIdInAndUserId(s.taskIds, s.userId)));
+        calls.add(new Call("deleteByIdAndUserId", s -> taskRepository.deleteByIdAndUserId(s.taskIds.get(0), s.userId)));
+        calls.add(new Call("deleteByIdInAndUserId", s -> taskRepository.deleteByIdInAndUserId(s.taskIds, s.userId)));
+        calls.add(new Call("updateStatusByIdAndUserId", s -> taskRepository.updateStatusByIdAndUserId(s.taskIds.get(0),
+                s.userId, Task.TaskStatus.PENDING, Task.TaskStatus.COMPLETED, s.syncVersion, s.now)));
+        calls.add(new Call("updateStatusByIdInAndUserId", s -> taskRepository.updateStatusByIdInAndUserId(s.taskIds,
+                s.userId, Task.TaskStatus.COMPLETED, s.syncVersion, s.now)));
+        calls.add(new Call("findExportPage", s -> taskRepository.findExportPage(s.userId, 0, Pageable.ofSize(500))));
+        calls.add(new Call("findChangedSince", s -> taskRepository.findChangedSince(s.userId, s.syncVersion,
+                s.taskIds.get(0), Pageable.ofSize(1001))));
+        calls.add(new Call("countByUserIdGrouped", s -> taskRepository.countByUserIdGrouped(s.userId)));
+        calls.add(new Call("countDueByUserId", s -> taskRepository.countDueByUserId(s.userId, Task.TaskStatus.COMPLETED,
+                s.now, s.startOfToday, s.endOfToday, s.endOfWeek)));
+        calls.add(new Call("findDistinctCategoriesByUserId", s -> taskRepository.findDistinctCategoriesByUserId(s.userId)));
+    
+        // TaskFilterRepositoryImpl.findPage, first page of each filter the task list offers
+        calls.add(page("newest", TaskSort.NEWEST, filter -> { }));
+        calls.add(page("status", TaskSort.NEWEST,
+                filter -> filter.setStatus(List.of(Task.TaskStatus.PENDING, Task.TaskStatus.IN_PROGRESS))));
+        calls.add(page("priority", TaskSort.NEWEST,
+                filter -> filter.setPriority(List.of(Task.TaskPriority.HIGH, Task.TaskPriority.URGENT))));
+        calls.add(page("category", TaskSort.NEWEST, filter -> filter.setCategory("finance")));
+        calls.add(page("tag", TaskSort.NEWEST, filter -> filter.setTag("ops")));
+        calls.add(page("dueDate", TaskSort.DUE_DATE, filter -> { }));
+        calls.add(page("overdue", TaskSort.DUE_DATE, filter -> filter.setOverdue(true)));
+        calls.add(page("text", TaskSort.NEWEST, filter -> filter.setQuery("invoice")));
+        calls.add(new Call("findPage.newestAfterCursor", s -> taskRepository.findPage(s.userId, new TaskFilter(),
+                TaskSort.NEWEST, new TaskCursor(TaskSort.NEWEST, s.cursorCreatedAt, s.taskIds.get(0)), 51)));
+    
+        // PostgresTaskSearchService
+        calls.add(new Call("search", s -> searchService.search(s.userId, "invoice", null, 50)));
+    
+        // TaskTagRepository
+        calls.add(new Call("tags.deleteByTaskId", s -> taskTagRepository.deleteByTaskId(s.taskIds.get(0))));
+        calls.add(new Call("tags.deleteByTaskIdIn", s -> taskTagRepository.deleteByTaskIdIn(s.taskIds)));
+        calls.add(new Call("tags.countByUserId", s -> taskTagRepository.countByUserId(s.userId)));
+    
+        // TaskCounterRepository, TaskVersionRepository, TaskTombstoneRepository, UserRepository
+        calls.add(new Call("counters.findByUserId", s -> counterRepository.findByUserId(s.userId)));
+        calls.add(new Call("counters.findCurrentByUserId", s -> counterRepository.findCurrentByUserId(s.userId)));
+        calls.add(new Call("versions.lock", s -> {
+            versionRepository.insertIfAbsent(s.userId);
+            versionRepository.lock(s.userId);
+        }));
+        calls.add(new Call("tombstones.findDeletedSince", s -> tombstoneRepository.findDeletedSince(s.userId,
+                s.syncVersion, s.taskIds.get(0), Pageable.ofSize(1001))));
+        calls.add(new Call("tombstones.deleteOlderThan",
+                s -> tombstoneRepository.deleteOlderThan(s.now.minusDays(30))));
+        calls.add(new Call("users.findByUsername", s -> userRepository.findByUsername(s.username)));
+        calls.add(new Call("users.findByEmail", s -> userRepository.findByEmail(s.username + "@example.com")));
+        calls.add(new Call("users.findIdByUsername", s -> userRepository.findIdByUsername(s.username)));
+    
+        return calls.stream().flatMap(call -> subjects.stream().map(subject ->
+                DynamicTest.dynamicTest(call.name + " [" + subject.label + "]", () -> check(call, subject))));
+    }
+    
+    private Call page(String name, TaskSort sort, Consumer<TaskFilter> criteria) {
+        return new Call("findPage." + name, s -> {
+            TaskFilter filter = new TaskFilter();
+            criteria.accept(filter);
+            taskRepository.findPage(s.userId, filter, sort, null, 51);
+        });
+    }
+    
+    private void check(Call call, Subject subject) {
+        List<RecordedStatement> statements = record(call, subject);
+        assertFalse(statements.isEmpty(), "No SQL was sent");
+        for (RecordedStatement statement : statements) {
+            List<String> scanned = new ArrayList<>();
+            walk(explain(statement), scanned);
+            assertTrue(scanned.isEmpty(), () -> "Seq Scan on " + String.join(", ", scanned) + " in: " + statement.sql);
+        }
+        if (statements.stream().anyMatch(statement -> !READ.matcher(statement.sql).lookingAt())) {
+            // Even rolled back, a write clears the all-visible bits of the pages it touched, and
+            // the calls after it would be planned against a table autovacuum has not caught up with
+            jdbcTemplate.execute("VACUUM");
+        }
+    }
+    
+    // Writes included: the calls run for real, so the SQL is what the application sends, and
+    // nothing they change is kept
+    private List<RecordedStatement> record(Call call, Subject subject) {
+        recorder.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                call.action.accept(subject);
+                status.setRollbackOnly();
+            });
+        } finally {
+            recorder.stop();
+        }
+        return recorder.statements();
+    }
+    
+    private JsonNode explain(RecordedStatement statement) {
+        // Custom plans for the bound values: what Postgres runs for Hibernate's first executions
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql)) {
+                for (ParameterSetOperation parameter : statement.parameters) {
+                    try {
+                        parameter.getMethod().invoke(explain, parameter.getArgs());
+                    } catch (IllegalAccessException | InvocationTargetException e) {
+                        throw new IllegalStateException("Could not bind " + parameter.getMethod().getName(), e);
+                    }
+                }
+                try (ResultSet rs = explain.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+        try {
+            return objectMapper.readTree(plan).get(0).get("Plan");
+        } catch (Exception e) {
+            return fail("Unreadable plan: " + plan, e);
+        }
+    }
+    
+    private static void walk(JsonNode node, List<String> scanned) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            scanned.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            walk(child, scanned);
+        }
+    }
+    
+    private Subject subject(String username, String label) {
+        List<Subject> rows = new ArrayList<>();
+        List<Long> taskIds = new ArrayList<>();
+        jdbcTemplate.query("SELECT u.id, t.id, t.created_at FROM users u JOIN tasks t ON t.user_id = u.id " +
+                "WHERE u.username = ? ORDER BY t.id OFFSET 100 LIMIT 3", rs -> {
+                    taskIds.add(rs.getLong(2));
+                    if (rows.isEmpty()) {
+                        rows.add(new Subject(label, username, rs.getLong(1), taskIds,
+                                rs.getTimestamp(3).toLocalDateTime()));
+                    }
+                }, username);
+        return rows.get(0);
+    }
+    
+    private static class Call {
+        private final String name;
+        private final Consumer<Subject> action;
+    
+        Call(String name, Consumer<Subject> action) {
+            this.name = name;
+            this.action = action;
+        }
+    }
+    
+    private static class Subject {
+        private final String label;
+        private final String username;
+        private final long userId;
+        private final List<Long> taskIds;
+        private final long syncVersion = 100;
+        private final LocalDateTime cursorCreatedAt;
+        private final LocalDateTime now = LocalDateTime.now();
+        private final LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
+        private final LocalDateTime endOfToday = LocalDate.now().plusDays(1).atStartOfDay().minusNanos(1000);
+        private final LocalDateTime endOfWeek = LocalDate.now().plusDays(7).atStartOfDay();
+    
+        Subject(String label, String username, long userId, List<Long> taskIds, LocalDateTime cursorCreatedAt) {
+            this.label = label;
+            this.username = username;
+            this.userId = userId;
+            this.taskIds = taskIds;
+            this.cursorCreatedAt = cursorCreatedAt;
+        }
+    }
+    
+    private static class RecordedStatement {
+        private final String sql;
+        private final List<ParameterSetOperation> parameters;
+    
+        RecordedStatement(String sql, List<ParameterSetOperation> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+    
+    /**
+     * Records the statements the test thread sends while recording is on. Other threads (the
+     * application's schedulers) are ignored.
+     */
+    static class StatementRecorder implements QueryExecutionListener {
+    
+        private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+        private volatile Thread recording;
+    
+        void start() {
+            statements.clear();
+            recording = Thread.currentThread();
+        }
+    
+        void stop() {
+            recording = null;
+        }
+    
+        List<RecordedStatement> statements() {
+            return List.copyOf(statements);
+        }
+    
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+    
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (recording != Thread.currentThread()) {
+                return;
+            }
+            for (QueryInfo query : queryInfoList) {
+                List<List<ParameterSetOperation>> parameters = query.getParametersList();
+                statements.add(new RecordedStatement(query.getQuery(),
+                        parameters.isEmpty() ? List.of() : List.copyOf(parameters.get(0))));
+            }
+        }
+    }
+    
+    @TestConfiguration
+    static class RecordingConfig {
+    
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    
+        // A second datasource-proxy layer beside JdbcInstrumentationConfig's, for the recorder
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor(ObjectProvider<StatementRecorder> recorder) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name("plan-check")
+                            .listener(recorder.getObject())
+                            .build();
+                }
+            };
+        }
+    
+        // Starts every run from an empty schema, whatever an interrupted run left behind. Only
+        // the test's own schema is dropped; Flyway's clean stays disabled
+        @Bean
+        FlywayMigrationStrategy recreateSchemaStrategy() {
+            return flyway -> {
+                new JdbcTemplate(flyway.getConfiguration().getDataSource())
+                        .execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+                flyway.migrate();
+            };
+        }
+    }
+}
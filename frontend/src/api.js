@@ -21,8 +21,9 @@ export const api = {
     return res.json();
   },
 
-  async getTasks(token) {
-    const res = await fetch(`${API_URL}/tasks`, {
+  async getTasks(token, cursor) {
+    const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : '';
+    const res = await fetch(`${API_URL}/tasks${query}`, {
       headers: { 'Authorization': `Bearer ${token}` }
     });
     if (!res.ok) throw new Error('Failed to fetch tasks');
@@ -8,6 +8,8 @@ import TaskList from '../components/TaskList';
 
 export default function Tasks({ token }) {
   const [tasks, setTasks] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [lastSearch, setLastSearch] = useState(null);
   const [categories, setCategories] = useState([]);
   const [loading, setLoading] = useState(false);
   const [editingId, setEditingId] = useState(null);
@@ -29,8 +31,10 @@ export default function Tasks({ token }) {
   const loadTasks = async () => {
     setLoading(true);
     try {
-      const data = await api.getTasks(token);
-      setTasks(data);
+      const page = await api.getTasks(token);
+      setTasks(page.items);
+      setNextCursor(page.nextCursor);
+      setLastSearch(null);
     } catch (error) {
       toast.error('Failed to load tasks');
       console.error(error);
@@ -57,8 +61,10 @@ export default function Tasks({ token }) {
       if (filterPriority) params.priority = filterPriority;
       if (filterCategory) params.category = filterCategory;
       
-      const data = await api.searchTasks(token, params);
-      setTasks(data);
+      const page = await api.searchTasks(token, params);
+      setTasks(page.items);
+      setNextCursor(page.nextCursor);
+      setLastSearch(params);
     } catch (error) {
       toast.error('Search failed');
       console.error(error);
@@ -67,6 +73,23 @@ export default function Tasks({ token }) {
     }
   };
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoading(true);
+    try {
+      const page = lastSearch
+        ? await api.searchTasks(token, { ...lastSearch, cursor: nextCursor })
+        : await api.getTasks(token, nextCursor);
+      setTasks(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (error) {
+      toast.error('Failed to load more tasks');
+      console.error(error);
+    } finally {
+      setLoading(false);
+    }
+  };
+
   const resetFilters = () => {
     setSearchQuery('');
     setFilterStatus('');
@@ -193,6 +216,18 @@ export default function Tasks({ token }) {
         />
       </div>
 
+      {nextCursor && (
+        <div className="flex justify-center mb-8">
+          <button
+            onClick={loadMore}
+            disabled={loading}
+            className="bg-gray-500 text-white px-6 py-2 rounded hover:bg-gray-600 disabled:opacity-50"
+          >
+            Load more
+          </button>
+        </div>
+      )}
+
       {/* Completed Tasks Section */}
       {completedTasks.length > 0 && (
         <div className="mt-8 border-t-2 border-gray-300 dark:border-gray-700 pt-8">